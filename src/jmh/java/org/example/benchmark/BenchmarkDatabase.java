@@ -0,0 +1,57 @@
+package org.example.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.component.Migrations;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+public class BenchmarkDatabase {
+    private static final int BATCH_SIZE = 1_000;
+
+    public static HikariDataSource create(String name) throws IOException, SQLException {
+        var hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        var dataSource = new HikariDataSource(hikariConfig);
+        Migrations.migrate(dataSource);
+
+        return dataSource;
+    }
+
+    // genres get ids 1..genreCount and books get ids 1..bookCount, spread evenly over the genres
+    public static void seed(HikariDataSource dataSource, int genreCount, int bookCount) throws SQLException {
+        var createdAt = new Timestamp(System.currentTimeMillis());
+
+        try (var conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (var stmt = conn.prepareStatement("INSERT INTO genres (name, created_at) VALUES (?, ?)")) {
+                for (int i = 1; i <= genreCount; i++) {
+                    stmt.setString(1, "Genre " + i);
+                    stmt.setTimestamp(2, createdAt);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+
+            var sql = "INSERT INTO books (title, author, genre_id, created_at) VALUES (?, ?, ?, ?)";
+            try (var stmt = conn.prepareStatement(sql)) {
+                for (int i = 1; i <= bookCount; i++) {
+                    stmt.setString(1, "Title " + i);
+                    stmt.setString(2, "Author " + i % 1_000);
+                    stmt.setLong(3, i % genreCount + 1);
+                    stmt.setTimestamp(4, createdAt);
+                    stmt.addBatch();
+                    if (i % BATCH_SIZE == 0) {
+                        stmt.executeBatch();
+                    }
+                }
+                stmt.executeBatch();
+            }
+
+            conn.commit();
+        }
+    }
+}
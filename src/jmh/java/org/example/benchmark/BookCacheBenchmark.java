@@ -0,0 +1,109 @@
+package org.example.benchmark;
+
+import org.example.cache.BookCache;
+import org.example.entity.Book;
+import org.example.repository.BaseRepository;
+import org.example.repository.BooksRepository;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// GET /books/{id} under a Zipfian read distribution: book k is read with a probability proportional
+// to 1 / k^skew, so a few titles take most of the reads. There are ten times more books than the cache
+// holds. uncached evicts the book before every read, i.e. the behaviour without the cache. The
+// databaseCalls and lookups counters show how many reads still reach the database.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookCacheBenchmark {
+    private static final int BOOK_COUNT = 100_000;
+
+    @Param({"0.8", "1.0", "1.2"})
+    public double skew;
+
+    private double[] cumulativeProbabilities;
+    private SplittableRandom random;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class DatabaseCalls {
+        public long lookups;
+        public long databaseCalls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            lookups = 0;
+            databaseCalls = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        BaseRepository.dataSource = BenchmarkDatabase.create("cache");
+        BenchmarkDatabase.seed(BaseRepository.dataSource, 24, BOOK_COUNT);
+        BookCache.invalidateAll();
+
+        cumulativeProbabilities = new double[BOOK_COUNT];
+        var sum = 0.0;
+        for (int k = 1; k <= BOOK_COUNT; k++) {
+            sum += 1 / Math.pow(k, skew);
+            cumulativeProbabilities[k - 1] = sum;
+        }
+        for (int i = 0; i < BOOK_COUNT; i++) {
+            cumulativeProbabilities[i] /= sum;
+        }
+        random = new SplittableRandom(42);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BookCache.invalidateAll();
+        BaseRepository.dataSource.close();
+    }
+
+    @Benchmark
+    public Optional<Book> cached(DatabaseCalls calls) throws SQLException {
+        var missCount = BookCache.getMissCount();
+        var book = BooksRepository.findById(nextId());
+        calls.lookups++;
+        calls.databaseCalls += BookCache.getMissCount() - missCount;
+        return book;
+    }
+
+    @Benchmark
+    public Optional<Book> uncached(DatabaseCalls calls) throws SQLException {
+        var id = nextId();
+        BookCache.invalidate(id);
+        var book = BooksRepository.findById(id);
+        calls.lookups++;
+        calls.databaseCalls++;
+        return book;
+    }
+
+    // ids are 1..BOOK_COUNT, the most read book is id 1
+    private long nextId() {
+        var index = Arrays.binarySearch(cumulativeProbabilities, random.nextDouble());
+        return (index < 0 ? -index - 1 : index) + 1;
+    }
+}
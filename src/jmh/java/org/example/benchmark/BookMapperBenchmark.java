@@ -0,0 +1,41 @@
+package org.example.benchmark;
+
+import org.example.dto.BookDTO;
+import org.example.entity.Book;
+import org.example.entity.Genre;
+import org.example.mapper.BookMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BookMapperBenchmark {
+    private Book book;
+
+    @Setup
+    public void setUp() {
+        var genre = new Genre("Popular science");
+        genre.setId(1L);
+        book = new Book("Code: The Hidden Language of Computer Hardware and Software", "Charles Petzold", genre);
+        book.setId(1L);
+    }
+
+    @Benchmark
+    public BookDTO toDTO() {
+        return BookMapper.toDTO(book);
+    }
+}
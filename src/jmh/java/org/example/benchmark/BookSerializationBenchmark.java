@@ -0,0 +1,118 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.entity.Book;
+import org.example.entity.Genre;
+import org.example.mapper.BookMapper;
+import org.example.util.DtoJsonWriters;
+import org.example.util.PageWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BookSerializationBenchmark {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    private List<Book> books;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        var genre = new Genre("Popular science");
+        genre.setId(1L);
+        books = new ArrayList<>();
+        for (int i = 1; i <= pageSize; i++) {
+            var book = new Book("Title " + i, "Author " + i, genre);
+            book.setId((long) i);
+            book.setVersion(0L);
+            books.add(book);
+        }
+        request = unconditionalRequest();
+        response = discardingResponse();
+    }
+
+    // the path BookService.showBooks used before streaming: DTO list, whole string, then bytes
+    @Benchmark
+    public byte[] writeValueAsString() throws IOException {
+        var bookDTOS = books.stream().map(BookMapper::toDTO).toList();
+        return OBJECT_MAPPER.writeValueAsString(bookDTOS).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // the path BookService.showBooks uses now
+    @Benchmark
+    public void pageWriter() throws IOException {
+        var pageWriter = new PageWriter<Book>(request, response, pageSize, BookMapper::toDTO,
+                DtoJsonWriters::writeBook);
+        pageWriter.begin(books.size(), books.get(books.size() - 1).getId(), "\"p0\"");
+        for (var book : books) {
+            pageWriter.accept(book);
+        }
+        pageWriter.finish();
+    }
+
+    // a request without If-None-Match, so every page is written in full
+    private static HttpServletRequest unconditionalRequest() {
+        return (HttpServletRequest) Proxy.newProxyInstance(
+                HttpServletRequest.class.getClassLoader(),
+                new Class<?>[] {HttpServletRequest.class},
+                (proxy, method, args) -> null);
+    }
+
+    private static HttpServletResponse discardingResponse() {
+        var outputStream = new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void write(int b) {
+                // discarded
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                // discarded
+            }
+        };
+
+        return (HttpServletResponse) Proxy.newProxyInstance(
+                HttpServletResponse.class.getClassLoader(),
+                new Class<?>[] {HttpServletResponse.class},
+                (proxy, method, args) -> method.getName().equals("getOutputStream") ? outputStream : null);
+    }
+}
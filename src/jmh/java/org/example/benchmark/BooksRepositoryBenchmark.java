@@ -0,0 +1,71 @@
+package org.example.benchmark;
+
+import org.example.entity.Book;
+import org.example.repository.BaseRepository;
+import org.example.repository.BooksRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BooksRepositoryBenchmark {
+    private static final int ROWS_PER_PAGE = 10;
+
+    @Param({"10000", "100000", "1000000"})
+    public int bookCount;
+
+    private int lastPage;
+    private Long lastPageCursor;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        BaseRepository.dataSource = BenchmarkDatabase.create("books" + bookCount);
+        BenchmarkDatabase.seed(BaseRepository.dataSource, 24, bookCount);
+        lastPage = bookCount / ROWS_PER_PAGE - 1;
+        lastPageCursor = (long) (bookCount - ROWS_PER_PAGE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BaseRepository.dataSource.close();
+    }
+
+    @Benchmark
+    public List<Book> findFirstPage() throws SQLException {
+        return BooksRepository.findEntities(0, ROWS_PER_PAGE);
+    }
+
+    @Benchmark
+    public List<Book> findLastPageByOffset() throws SQLException {
+        return BooksRepository.findEntities(lastPage, ROWS_PER_PAGE);
+    }
+
+    @Benchmark
+    public List<Book> findLastPageByCursor() throws SQLException {
+        return BooksRepository.findEntitiesAfter(lastPageCursor, ROWS_PER_PAGE);
+    }
+
+    @Benchmark
+    public List<Book> findPageByAuthor() throws SQLException {
+        return BooksRepository.findEntitiesByAuthor("Author 500", 0, ROWS_PER_PAGE);
+    }
+}
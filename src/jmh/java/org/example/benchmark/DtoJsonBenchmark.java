@@ -0,0 +1,96 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import org.example.dto.BookDTO;
+import org.example.util.DtoJsonWriters;
+import org.example.util.JsonBuffer;
+import org.example.util.JsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Encoding a book, as cached by ResponseCache, and a page of books into UTF-8 bytes with the reflective
+// ObjectMapper the services used before, with Gson as WelcomeServlet used it, and with DtoJsonWriters.
+// The gc profiler's gc.alloc.rate.norm is the number of bytes allocated per response.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DtoJsonBenchmark {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Gson GSON = new Gson();
+    private static final JsonWriter<List<BookDTO>> BOOKS_WRITER =
+            (buffer, books) -> buffer.writeArray(books, DtoJsonWriters::writeBook);
+
+    // ASCII takes the copying fast path of JsonBuffer.writeString, Cyrillic is encoded char by char
+    @Param({"ascii", "cyrillic"})
+    public String text;
+
+    @Param({"100"})
+    public int pageSize;
+
+    private BookDTO book;
+    private List<BookDTO> books;
+
+    @Setup
+    public void setUp() {
+        var cyrillic = text.equals("cyrillic");
+        books = new ArrayList<>();
+        for (int i = 1; i <= pageSize; i++) {
+            var bookDTO = new BookDTO();
+            bookDTO.setId((long) i);
+            bookDTO.setTitle((cyrillic ? "Мастер и Маргарита " : "The Master and Margarita ") + i);
+            bookDTO.setAuthor(cyrillic ? "Михаил Булгаков" : "Mikhail Bulgakov");
+            bookDTO.setGenreName(cyrillic ? "Роман" : "Novel");
+            books.add(bookDTO);
+        }
+        book = books.get(0);
+    }
+
+    @Benchmark
+    public byte[] jacksonBook() throws IOException {
+        return OBJECT_MAPPER.writeValueAsBytes(book);
+    }
+
+    @Benchmark
+    public byte[] gsonBook() {
+        return GSON.toJson(book).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] dtoJsonWriterBook() {
+        return JsonBuffer.toBytes(DtoJsonWriters::writeBook, book);
+    }
+
+    @Benchmark
+    public byte[] jacksonPage() throws IOException {
+        return OBJECT_MAPPER.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] gsonPage() {
+        return GSON.toJson(books).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] dtoJsonWriterPage() {
+        return JsonBuffer.toBytes(BOOKS_WRITER, books);
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.benchmark;
+
+import org.example.dto.ReviewDTO;
+import org.example.entity.Book;
+import org.example.entity.Genre;
+import org.example.entity.Review;
+import org.example.mapper.ReviewMapper;
+import org.example.util.Representation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// CPU cost of encoding one page of reviews per representation, with and without the gzip Tomcat applies;
+// the encoded size of a page (bytes on the wire) is printed at the end of each trial
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ResponseEncodingBenchmark {
+    private static final String[] WORDS = {"the", "book", "author", "story", "chapter", "reader", "character",
+        "plot", "ending", "really", "enjoyed", "recommend", "slow", "brilliant", "translation", "pages"};
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    public Representation representation;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    @Param({"200", "2000"})
+    public int contentLength;
+
+    private List<ReviewDTO> reviews;
+    private ByteArrayOutputStream buffer;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        var genre = new Genre("Popular science");
+        genre.setId(1L);
+        reviews = new ArrayList<>();
+        for (int i = 1; i <= pageSize; i++) {
+            var book = new Book("Title " + i, "Author " + i, genre);
+            book.setId((long) i);
+            var review = new Review(content(random), book);
+            review.setId((long) i);
+            reviews.add(ReviewMapper.toDTO(review));
+        }
+        buffer = new ByteArrayOutputStream();
+    }
+
+    @Benchmark
+    public int encodePage() throws IOException {
+        buffer.reset();
+        OutputStream out = gzip ? new GZIPOutputStream(buffer) : buffer;
+        representation.getObjectMapper().writeValue(out, reviews);
+        return buffer.size();
+    }
+
+    @TearDown(Level.Trial)
+    public void reportSize() throws IOException {
+        System.out.printf("%n%s gzip=%s pageSize=%d contentLength=%d: %d bytes per page%n",
+                representation, gzip, pageSize, contentLength, encodePage());
+    }
+
+    // natural-language-like text, since review content dominates the page and compresses like prose
+    private String content(Random random) {
+        var content = new StringBuilder();
+        while (content.length() < contentLength) {
+            content.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return content.substring(0, contentLength);
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.benchmark;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.example.util.Route;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-request cost of finding the action and id of a request. splitPath repeats what RequestUtil did
+// for every request: the metrics filter and the servlet each called getAction, which splits the path and
+// calls getId, which splits it again, and the service called getId once more. parseRoute parses the path
+// once, as Route.of does, and looks the handler up by the action's ordinal. Run with -prof gc to see the
+// allocation per request.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RoutingBenchmark {
+    private static final String[] PATHS = {"/list", "/42", "/42/edit", "/export", "/1234567/delete"};
+
+    private final Object[] handlers = new Object[Route.Action.values().length];
+    private int request;
+
+    public RoutingBenchmark() {
+        for (int i = 0; i < handlers.length; i++) {
+            handlers[i] = new Object();
+        }
+    }
+
+    @Benchmark
+    public void splitPath(Blackhole blackhole) {
+        var path = PATHS[request++ % PATHS.length];
+        blackhole.consume(getAction(path));
+        blackhole.consume(getAction(path));
+        // services parsed the id of entity paths only
+        var id = getId(path);
+        if (Character.isDigit(id.charAt(0))) {
+            blackhole.consume(Long.parseLong(id));
+        }
+    }
+
+    @Benchmark
+    public void parseRoute(Blackhole blackhole) {
+        var path = PATHS[request++ % PATHS.length];
+        var route = Route.parse(path);
+        blackhole.consume(route.getAction().getLabel());
+        blackhole.consume(handlers[route.getAction().ordinal()]);
+        blackhole.consume(route.getId());
+    }
+
+    private static String getId(String pathInfo) {
+        String[] pathParts = pathInfo.split("/");
+        return ArrayUtils.get(pathParts, 1, null);
+    }
+
+    private static String getAction(String pathInfo) {
+        String[] pathParts = pathInfo.split("/");
+        return ArrayUtils.get(pathParts, 2, getId(pathInfo));
+    }
+}
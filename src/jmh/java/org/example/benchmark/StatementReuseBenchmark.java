@@ -0,0 +1,84 @@
+package org.example.benchmark;
+
+import org.example.entity.Book;
+import org.example.mapper.BookMapper;
+import org.example.repository.BaseRepository;
+import org.example.repository.BooksRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Page queries with the values inlined into the SQL text, as the repositories built them before, against
+// the same query with bind parameters. Every page gives a new statement text that has to be parsed and
+// planned again, while the bound query is parsed once per connection and then reused. Pages are near the
+// start of the books table, so reading the rows is cheap and the difference is the parse and plan time.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StatementReuseBenchmark {
+    private static final int BOOK_COUNT = 10_000;
+    private static final int ROWS_PER_PAGE = 10;
+    private static final int PAGE_COUNT = 100;
+
+    private static final String SELECT_BOOKS_PAGE_LITERAL = """
+            SELECT books.id, books.title, books.author, books.created_at, books.version,
+                   genres.id AS genre_id, genres.name AS genre_name, genres.created_at AS genre_created_at,
+                   genres.version AS genre_version
+            FROM books
+            INNER JOIN genres
+            ON books.genre_id = genres.id
+            ORDER BY books.id LIMIT %d OFFSET %d
+            """;
+
+    private int request;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        BaseRepository.dataSource = BenchmarkDatabase.create("statements");
+        BenchmarkDatabase.seed(BaseRepository.dataSource, 24, BOOK_COUNT);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BaseRepository.dataSource.close();
+    }
+
+    @Benchmark
+    public List<Book> literalValues() throws SQLException {
+        var page = request++ % PAGE_COUNT;
+        var sql = String.format(SELECT_BOOKS_PAGE_LITERAL, ROWS_PER_PAGE, page * ROWS_PER_PAGE);
+
+        try (var conn = BaseRepository.dataSource.getConnection();
+             var stmt = conn.prepareStatement(sql)) {
+            var resultSet = stmt.executeQuery();
+            var books = new ArrayList<Book>();
+            while (resultSet.next()) {
+                books.add(BookMapper.toEntity(resultSet));
+            }
+            return books;
+        }
+    }
+
+    @Benchmark
+    public List<Book> bindParameters() throws SQLException {
+        var page = request++ % PAGE_COUNT;
+        return BooksRepository.findEntities(page, ROWS_PER_PAGE);
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.example.App;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Compares the platform thread pool with virtual threads (VIRTUAL_THREADS=true): for each concurrency level
+// that many clients keep exactly one request in flight each, and the server's throughput, latency, live
+// threads and resident memory per concurrent connection are reported. On platform threads the requests are
+// run by the bounded DbExecutor and rejected with 503 once its queue is full, on virtual threads they run on
+// the request thread and only wait for a connection.
+@Slf4j
+public class ConcurrencyBenchmark {
+    private static final int CLIENT_THREADS = 4;
+    private static final long SAMPLE_INTERVAL_MILLIS = 100;
+    private static final long KIB = 1024;
+
+    private record Result(int concurrency, long requests, long errors, double throughput, ConcurrentHistogram latency,
+                          long peakThreads, long memoryPerConnection) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var mode = Boolean.parseBoolean(System.getenv("VIRTUAL_THREADS")) ? "virtual" : "platform";
+        var levels = parseLevels(System.getProperty("loadtest.concurrency", "50,200,1000"));
+        var durationSeconds = Integer.parseInt(System.getProperty("loadtest.duration", "20"));
+        var seedBooks = Integer.parseInt(System.getProperty("loadtest.seed", "1000"));
+        var operation = Operation.valueOf(System.getProperty("loadtest.operation", "GET_BOOKS"));
+        var reportPath = Path.of(System.getProperty("loadtest.report",
+                "build/reports/loadtest/concurrency-" + mode + ".txt"));
+
+        var app = App.getApp();
+        app.start();
+        var clientExecutor = Executors.newFixedThreadPool(CLIENT_THREADS);
+        try {
+            var client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .build();
+            var context = new LoadContext("http://localhost:" + app.getConnector().getLocalPort());
+            context.seed(client, seedBooks);
+
+            var results = new ArrayList<Result>();
+            for (var concurrency : levels) {
+                log.info("Running {} concurrent clients on {} threads for {}s", concurrency, mode, durationSeconds);
+                results.add(run(client, context, operation, concurrency, durationSeconds));
+            }
+            writeReport(reportPath, mode, operation, results);
+            log.info("Report written to {}", reportPath.toAbsolutePath());
+        } finally {
+            clientExecutor.shutdownNow();
+            app.stop();
+        }
+    }
+
+    private static Result run(HttpClient client, LoadContext context, Operation operation, int concurrency,
+                              int durationSeconds) throws InterruptedException {
+        var latency = new ConcurrentHistogram(3);
+        var errors = new LongAdder();
+        var done = new CountDownLatch(concurrency);
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        var threads = ManagementFactory.getThreadMXBean();
+        var baselineMemory = residentMemory();
+        var peakThreads = new AtomicLong(threads.getThreadCount());
+        var peakMemory = new AtomicLong(baselineMemory);
+        var sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+            peakMemory.accumulateAndGet(residentMemory(), Math::max);
+        }, 0, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+        var startNanos = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            sendNext(client, context, operation, deadline, latency, errors, done);
+        }
+        done.await();
+        var elapsedNanos = System.nanoTime() - startNanos;
+        sampler.shutdownNow();
+
+        var requests = latency.getTotalCount();
+        return new Result(concurrency, requests, errors.sum(),
+                requests * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos, latency, peakThreads.get(),
+                (peakMemory.get() - baselineMemory) / concurrency);
+    }
+
+    // closed loop: a client sends its next request as soon as the previous one completes
+    private static void sendNext(HttpClient client, LoadContext context, Operation operation, long deadline,
+                                 ConcurrentHistogram latency, LongAdder errors, CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+
+        var startNanos = System.nanoTime();
+        client.sendAsync(operation.request(context), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    latency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+                    if (error != null || response.statusCode() >= 400) {
+                        errors.increment();
+                    }
+                    sendNext(client, context, operation, deadline, latency, errors, done);
+                });
+    }
+
+    // resident set size of this process in bytes, includes native thread stacks unlike the heap figures
+    private static long residentMemory() {
+        try {
+            for (var line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * KIB;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // not on Linux, fall back to the heap below
+        }
+        var memory = ManagementFactory.getMemoryMXBean();
+        return memory.getHeapMemoryUsage().getUsed() + memory.getNonHeapMemoryUsage().getUsed();
+    }
+
+    private static List<Integer> parseLevels(String value) {
+        var levels = new ArrayList<Integer>();
+        for (var level : value.split(",")) {
+            levels.add(Integer.parseInt(level.trim()));
+        }
+        return levels;
+    }
+
+    private static void writeReport(Path reportPath, String mode, Operation operation, List<Result> results)
+            throws IOException {
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        try (var out = new PrintStream(Files.newOutputStream(reportPath), true, StandardCharsets.UTF_8)) {
+            out.printf("threads: %s, operation: %s, java: %s%n%n", mode, operation, Runtime.version());
+            out.printf("%12s %10s %8s %10s %10s %10s %10s %14s%n",
+                    "concurrency", "requests", "errors", "req/s", "p50 ms", "p99 ms", "threads", "KiB/connection");
+            for (var result : results) {
+                out.printf("%12d %10d %8d %10.1f %10.2f %10.2f %10d %14d%n",
+                        result.concurrency(), result.requests(), result.errors(), result.throughput(),
+                        result.latency().getValueAtPercentile(50) / 1000.0,
+                        result.latency().getValueAtPercentile(99) / 1000.0,
+                        result.peakThreads(), result.memoryPerConnection() / KIB);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LoadContext {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String GENRE_NAME = "Fantasy";
+
+    private final String baseUrl;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<Long> reviewedBookIds = new ArrayList<>();
+    // seeded books without a review, each one taken by one CREATE_REVIEW
+    private final List<String> unreviewedTitles = new ArrayList<>();
+
+    public LoadContext(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    // books and their reviews are created through the API so that an external server can be driven as well;
+    // every other book is left without a review for CREATE_REVIEW
+    public void seed(HttpClient client, int bookCount) throws IOException, InterruptedException {
+        for (int i = 0; i < bookCount; i++) {
+            var title = uniqueName("Seed title");
+            var response = client.send(post("/books/list?title=" + encode(title)
+                    + "&author=" + encode("Seed author " + i % 100)
+                    + "&genreName=" + encode(GENRE_NAME)), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding failed with status " + response.statusCode());
+            }
+            var bookId = OBJECT_MAPPER.readTree(response.body()).get("id").asLong();
+            bookIds.add(bookId);
+
+            if (i % 2 == 1) {
+                unreviewedTitles.add(title);
+                continue;
+            }
+            client.send(post("/reviews/list?bookTitle=" + encode(title)
+                    + "&content=" + encode("Seed review " + i)), HttpResponse.BodyHandlers.discarding());
+            reviewedBookIds.add(bookId);
+        }
+    }
+
+    public HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    public HttpRequest post(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    public long randomBookId() {
+        return bookIds.get(ThreadLocalRandom.current().nextInt(bookIds.size()));
+    }
+
+    public long randomReviewedBookId() {
+        return reviewedBookIds.get(ThreadLocalRandom.current().nextInt(reviewedBookIds.size()));
+    }
+
+    // a random seeded book without a review, removed so that no other request reviews it; null once all are taken
+    public synchronized String takeUnreviewedTitle() {
+        if (unreviewedTitles.isEmpty()) {
+            return null;
+        }
+        var index = ThreadLocalRandom.current().nextInt(unreviewedTitles.size());
+        var last = unreviewedTitles.remove(unreviewedTitles.size() - 1);
+        return index == unreviewedTitles.size() ? last : unreviewedTitles.set(index, last);
+    }
+
+    public int randomPage() {
+        return randomPage(bookIds.size());
+    }
+
+    public int randomReviewPage() {
+        return randomPage(reviewedBookIds.size());
+    }
+
+    private static int randomPage(int rowCount) {
+        var pageCount = Math.max(1, rowCount / 10);
+        return ThreadLocalRandom.current().nextInt(pageCount) + 1;
+    }
+
+    public String uniqueName(String prefix) {
+        return prefix + " " + runId + "-" + sequence.incrementAndGet();
+    }
+
+    public String genreName() {
+        return GENRE_NAME;
+    }
+
+    public static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.apache.catalina.startup.Tomcat;
+import org.example.App;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+@Slf4j
+public class LoadTest {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final long DRAIN_TIMEOUT_SECONDS = 30;
+
+    private final HttpClient client;
+    private final LoadContext context;
+    private final LoadTestConfig config;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    public LoadTest(HttpClient client, LoadContext context, LoadTestConfig config) {
+        this.client = client;
+        this.context = context;
+        this.config = config;
+        this.operations = config.mix().keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        var total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += config.mix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    // open-loop load: requests are sent on a fixed schedule whether or not earlier ones have completed
+    public Map<Operation, OperationStats> run(int seconds) throws InterruptedException {
+        var stats = new EnumMap<Operation, OperationStats>(Operation.class);
+        for (var operation : operations) {
+            stats.put(operation, new OperationStats());
+        }
+
+        var intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rps();
+        var totalRequests = (long) seconds * config.rps();
+        var futures = new ArrayList<CompletableFuture<?>>();
+        var start = System.nanoTime();
+
+        for (long i = 0; i < totalRequests; i++) {
+            var intendedStart = start + i * intervalNanos;
+            var delay = intendedStart - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+
+            var operation = nextOperation();
+            var operationStats = stats.get(operation);
+            var request = operation.request(context);
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .orTimeout(REQUEST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                    .whenComplete((response, error) -> {
+                        var latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+                        var success = error == null && response.statusCode() < 400;
+                        operationStats.record(latencyMicros, success);
+                    }));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                    .get(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("Not all requests completed before the report was taken: {}", e.toString());
+        }
+
+        return stats;
+    }
+
+    private Operation nextOperation() {
+        var value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private static void writeReport(LoadTestConfig config, Map<Operation, OperationStats> stats) throws IOException {
+        Files.createDirectories(config.reportPath().toAbsolutePath().getParent());
+        try (var out = new PrintStream(Files.newOutputStream(config.reportPath()), true, StandardCharsets.UTF_8)) {
+            out.printf("target rps: %d, duration: %ds, mix: %s%n%n",
+                    config.rps(), config.durationSeconds(), config.mix());
+            out.printf("%-14s %10s %10s %8s %10s %10s %10s %10s%n",
+                    "operation", "requests", "errors", "error%", "p50 ms", "p99 ms", "p999 ms", "max ms");
+
+            var total = new Histogram(3);
+            long totalErrors = 0;
+            for (var entry : stats.entrySet()) {
+                var operationStats = entry.getValue();
+                printRow(out, entry.getKey().name(), operationStats.getHistogram(), operationStats.getErrors());
+                total.add(operationStats.getHistogram());
+                totalErrors += operationStats.getErrors();
+            }
+            printRow(out, "TOTAL", total, totalErrors);
+            out.printf("%nachieved rps: %.1f%n", (double) total.getTotalCount() / config.durationSeconds());
+
+            out.printf("%nlatency distribution, all operations (ms):%n");
+            total.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram, long errors) {
+        var count = histogram.getTotalCount();
+        out.printf("%-14s %10d %10d %8.2f %10.2f %10.2f %10.2f %10.2f%n",
+                name, count, errors, count == 0 ? 0.0 : errors * 100.0 / count,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    public static void main(String[] args) throws Exception {
+        var config = LoadTestConfig.fromSystemProperties();
+
+        Tomcat app = null;
+        var baseUrl = config.baseUrl();
+        if (baseUrl == null) {
+            app = App.getApp();
+            app.start();
+            baseUrl = "http://localhost:" + app.getConnector().getLocalPort();
+        }
+
+        try {
+            var client = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+            var context = new LoadContext(baseUrl);
+            log.info("Seeding {} books at {}", config.seedBooks(), baseUrl);
+            context.seed(client, config.seedBooks());
+
+            var loadTest = new LoadTest(client, context, config);
+            log.info("Warming up for {}s at {} rps", config.warmupSeconds(), config.rps());
+            loadTest.run(config.warmupSeconds());
+            log.info("Measuring for {}s at {} rps", config.durationSeconds(), config.rps());
+            var stats = loadTest.run(config.durationSeconds());
+
+            writeReport(config, stats);
+            log.info("Report written to {}", config.reportPath().toAbsolutePath());
+        } finally {
+            if (app != null) {
+                app.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.loadtest;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+public record LoadTestConfig(String baseUrl, int rps, int warmupSeconds, int durationSeconds, int seedBooks,
+                             Map<Operation, Integer> mix, Path reportPath) {
+    private static final String DEFAULT_MIX =
+            "GET_BOOKS:40,GET_BOOK:25,GET_GENRES:10,GET_REVIEWS:10,CREATE_BOOK:5,CREATE_REVIEW:5,CREATE_GENRE:5";
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                System.getProperty("loadtest.baseUrl"),
+                Integer.parseInt(System.getProperty("loadtest.rps", "200")),
+                Integer.parseInt(System.getProperty("loadtest.warmup", "5")),
+                Integer.parseInt(System.getProperty("loadtest.duration", "30")),
+                Integer.parseInt(System.getProperty("loadtest.seed", "1000")),
+                parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX)),
+                Path.of(System.getProperty("loadtest.report", "build/reports/loadtest/report.txt"))
+        );
+    }
+
+    // "GET_BOOKS:40,CREATE_BOOK:10" -> relative weights per operation
+    private static Map<Operation, Integer> parseMix(String value) {
+        var result = new EnumMap<Operation, Integer>(Operation.class);
+        for (var entry : value.split(",")) {
+            var parts = entry.trim().split(":");
+            var weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                result.put(Operation.valueOf(parts[0].trim()), weight);
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("Operation mix is empty: " + value);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.loadtest;
+
+import java.net.http.HttpRequest;
+
+import static org.example.loadtest.LoadContext.encode;
+
+public enum Operation {
+    GET_BOOKS {
+        @Override
+        HttpRequest request(LoadContext context) {
+            return context.get("/books?page=" + context.randomPage());
+        }
+    },
+    GET_BOOK {
+        @Override
+        HttpRequest request(LoadContext context) {
+            return context.get("/books/" + context.randomBookId());
+        }
+    },
+    GET_GENRES {
+        @Override
+        HttpRequest request(LoadContext context) {
+            return context.get("/genres");
+        }
+    },
+    GET_REVIEWS {
+        @Override
+        HttpRequest request(LoadContext context) {
+            return context.get("/reviews?page=" + context.randomReviewPage());
+        }
+    },
+    CREATE_BOOK {
+        @Override
+        HttpRequest request(LoadContext context) {
+            return context.post("/books/list?title=" + encode(context.uniqueName("Load title"))
+                    + "&author=" + encode("Load author")
+                    + "&genreName=" + encode(context.genreName()));
+        }
+    },
+    CREATE_REVIEW {
+        @Override
+        HttpRequest request(LoadContext context) {
+            var title = context.takeUnreviewedTitle();
+            if (title == null) {
+                // every seeded book is reviewed, a long run keeps writing reviews by editing one
+                return context.post("/reviews/" + context.randomReviewedBookId() + "/edit?content="
+                        + encode(context.uniqueName("Load review")));
+            }
+            return context.post("/reviews/list?bookTitle=" + encode(title)
+                    + "&content=" + encode(context.uniqueName("Load review")));
+        }
+    },
+    CREATE_GENRE {
+        @Override
+        HttpRequest request(LoadContext context) {
+            return context.post("/genres/list?name=" + encode(context.uniqueName("Load genre")));
+        }
+    };
+
+    abstract HttpRequest request(LoadContext context);
+}
@@ -0,0 +1,33 @@
+package org.example.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class OperationStats {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    // latencies in microseconds, measured from the intended send time to avoid coordinated omission
+    private final Histogram histogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final LongAdder errors = new LongAdder();
+
+    public void record(long latencyMicros, boolean success) {
+        histogram.recordValue(latencyMicros);
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    public Histogram getHistogram() {
+        return histogram;
+    }
+
+    public long getCount() {
+        return histogram.getTotalCount();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+}
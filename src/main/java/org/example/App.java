@@ -2,25 +2,40 @@ package org.example;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.tomcat.TomcatMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.catalina.Context;
 import org.apache.catalina.LifecycleException;
 import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+import org.example.cache.BookCache;
+import org.example.cache.GenreCache;
+import org.example.cache.ResponseCache;
 import org.example.component.DataInitializer;
+import org.example.component.DbExecutor;
+import org.example.component.GenreStatsReconciler;
+import org.example.component.Migrations;
+import org.example.component.SearchIndexLoader;
+import org.example.metrics.AppMetrics;
+import org.example.metrics.HttpMetricsFilter;
 import org.example.repository.BaseRepository;
+import org.example.repository.GenresRepository;
 import org.example.servlet.BooksServlet;
 import org.example.servlet.GenresServlet;
+import org.example.servlet.GzipETagFilter;
+import org.example.servlet.MetricsServlet;
 import org.example.servlet.ReviewsServlet;
+import org.example.servlet.SearchServlet;
 import org.example.servlet.WelcomeServlet;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Slf4j
 public class App {
@@ -53,33 +68,129 @@ public class App {
         return getMode().equals("development");
     }
 
-    private static InputStream getFileFromResourceAsStream(String fileName) {
-        ClassLoader classLoader = App.class.getClassLoader();
-        return classLoader.getResourceAsStream(fileName);
+    private static boolean isVirtualThreads() {
+        return Boolean.parseBoolean(System.getenv().getOrDefault("VIRTUAL_THREADS", "false"));
     }
 
-    private static String getContentFromStream(InputStream is) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-            return reader.lines().collect(Collectors.joining("\n"));
+    // opt-in: every request runs on its own virtual thread, so a request blocked on JDBC costs a small heap
+    // object instead of a platform thread and the connection pool becomes the real concurrency limit.
+    // Returns whether requests run on virtual threads
+    private static boolean configureExecutor(Tomcat tomcat) {
+        if (!isVirtualThreads()) {
+            return false;
+        }
+
+        try {
+            // looked up reflectively to keep compiling on Java versions where virtual threads are a preview API
+            var factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            var executor = (ExecutorService) factory.invoke(null);
+            var protocolHandler = (AbstractProtocol<?>) tomcat.getConnector().getProtocolHandler();
+            protocolHandler.setExecutor(executor);
+            log.info("Requests are handled on virtual threads");
+            return true;
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads are not available on Java {}, using platform threads", Runtime.version());
+            return false;
         }
     }
 
-    private static void getConfiguredDatabase(String url) throws IOException, SQLException {
+    private static boolean isCompression() {
+        return !System.getenv().getOrDefault("COMPRESSION", "on").equals("off");
+    }
+
+    // gzip for responses above the threshold, negotiated by Tomcat from Accept-Encoding.
+    // Tomcat skips compression for responses with a strong ETag by default; GzipETagFilter gives the
+    // responses it may compress their own ETag, so they can stay strong
+    private static void configureCompression(Tomcat tomcat) {
+        var env = System.getenv();
+        var connector = tomcat.getConnector();
+        connector.setProperty("compression", env.getOrDefault("COMPRESSION", "on"));
+        connector.setProperty("compressionMinSize", env.getOrDefault("COMPRESSION_MIN_SIZE", "1024"));
+        connector.setProperty("noCompressionStrongETag", "false");
+        connector.setProperty("compressibleMimeType", String.join(",",
+                "application/json", "application/x-ndjson", "application/x-jackson-smile", "application/cbor",
+                "text/html", "text/plain"));
+    }
+
+    // a virtual request thread blocked on JDBC is as cheap as a queued task, so with virtual threads the
+    // handlers run on the request thread instead of being handed to the fixed-size DbExecutor
+    private static void startDbExecutor(boolean virtualThreads) {
+        if (virtualThreads) {
+            DbExecutor.startInline();
+            return;
+        }
+
+        var env = System.getenv();
+        var threads = env.getOrDefault("DB_EXECUTOR_THREADS", env.getOrDefault("DB_POOL_MAX_SIZE", "10"));
+        var queueCapacity = env.getOrDefault("DB_EXECUTOR_QUEUE", "100");
+        DbExecutor.start(Integer.parseInt(threads), Integer.parseInt(queueCapacity));
+    }
+
+    private static void startGenreStatsReconciler() throws SQLException {
+        var period = System.getenv().getOrDefault("GENRE_STATS_RECONCILE_SECONDS", "300");
+        GenreStatsReconciler.start(Long.parseLong(period));
+    }
+
+    private static void configurePool(HikariConfig hikariConfig) {
+        var env = System.getenv();
+        var maximumPoolSize = env.getOrDefault("DB_POOL_MAX_SIZE", "10");
+        hikariConfig.setMaximumPoolSize(Integer.parseInt(maximumPoolSize));
+        hikariConfig.setMinimumIdle(Integer.parseInt(env.getOrDefault("DB_POOL_MIN_IDLE", maximumPoolSize)));
+        hikariConfig.setConnectionTimeout(Long.parseLong(env.getOrDefault("DB_CONNECTION_TIMEOUT_MS", "30000")));
+        hikariConfig.setLeakDetectionThreshold(Long.parseLong(env.getOrDefault("DB_LEAK_DETECTION_MS", "0")));
+
+        if (hikariConfig.getJdbcUrl().startsWith("jdbc:postgresql:")) {
+            // number of executions after which pgjdbc switches a statement to a named server-side prepare
+            hikariConfig.addDataSourceProperty("prepareThreshold", env.getOrDefault("DB_PREPARE_THRESHOLD", "5"));
+            hikariConfig.addDataSourceProperty("preparedStatementCacheQueries",
+                    env.getOrDefault("DB_PREPARED_STATEMENT_CACHE_QUERIES", "256"));
+            hikariConfig.addDataSourceProperty("preparedStatementCacheSizeMiB",
+                    env.getOrDefault("DB_PREPARED_STATEMENT_CACHE_SIZE_MIB", "5"));
+        }
+
+        hikariConfig.setMetricRegistry(AppMetrics.getRegistry());
+    }
+
+    private static HikariDataSource createDataSource(String url) {
         var hikariConfig = new HikariConfig();
         hikariConfig.setJdbcUrl(url);
+        configurePool(hikariConfig);
+
+        return new HikariDataSource(hikariConfig);
+    }
 
-        var dataSource = new HikariDataSource(hikariConfig);
-        String sql = getContentFromStream(getFileFromResourceAsStream("schema.sql"));
+    private static void getConfiguredDatabase(String url) throws IOException, SQLException {
+        var dataSource = createDataSource(url);
 
-        log.info(sql);
-        try (var connection = dataSource.getConnection();
-             var statement = connection.createStatement()) {
-            statement.execute(sql);
+        if (!isDevelopment()) {
+            // the in-memory database is shared by everything in the JVM, tests expect each app to start empty
+            try (var connection = dataSource.getConnection();
+                 var statement = connection.createStatement()) {
+                statement.execute("DROP ALL OBJECTS");
+            }
         }
+        Migrations.migrate(dataSource);
 
         BaseRepository.dataSource = dataSource;
+        GenreCache.invalidateAll();
+        BookCache.invalidateAll();
+        ResponseCache.BOOKS.invalidateAll();
+        ResponseCache.GENRES.invalidateAll();
+        ResponseCache.REVIEWS.invalidateAll();
     }
 
+    // connects to the development database without resetting the schema, for tools running next to the app.
+    // Outside development there is only the in-memory database of a running app, which a separate JVM
+    // would see as a new empty one, so the tool fails instead of writing into it
+    public static void connectDatabase() throws IOException, SQLException {
+        if (!isDevelopment()) {
+            throw new IllegalStateException("APP_ENV=development with DATABASE_NAME, USER and PASSWORD is required");
+        }
+
+        var dataSource = createDataSource(getDefaultDatabaseUrl());
+        Migrations.migrate(dataSource);
+        BaseRepository.dataSource = dataSource;
+    }
 
     public static Tomcat getApp() throws IOException, SQLException {
         if (isDevelopment()) {
@@ -88,28 +199,65 @@ public class App {
             getConfiguredDatabase("jdbc:h2:mem:test");
         }
 
-        DataInitializer.run();
+        if (GenresRepository.findEntities(0, 1).isEmpty()) {
+            DataInitializer.run();
+        }
+        SearchIndexLoader.run();
+        startGenreStatsReconciler();
 
         int port = getPort();
 
         Tomcat tomcat = new Tomcat();
         tomcat.setBaseDir(System.getProperty("java.io.tmpdir"));
         tomcat.setPort(port);
+        startDbExecutor(configureExecutor(tomcat));
+        configureCompression(tomcat);
+        new TomcatMetrics(null, Tags.empty()).bindTo(AppMetrics.getRegistry());
 
         Context ctx = tomcat.addContext("", new File(".").getAbsolutePath());
 
         Tomcat.addServlet(ctx, WelcomeServlet.class.getSimpleName(), new WelcomeServlet());
         ctx.addServletMappingDecoded("", WelcomeServlet.class.getSimpleName());
 
-        Tomcat.addServlet(ctx, BooksServlet.class.getSimpleName(), new BooksServlet());
+        Tomcat.addServlet(ctx, BooksServlet.class.getSimpleName(), new BooksServlet()).setAsyncSupported(true);
         ctx.addServletMappingDecoded("/books/*", BooksServlet.class.getSimpleName());
 
-        Tomcat.addServlet(ctx, GenresServlet.class.getSimpleName(), new GenresServlet());
+        Tomcat.addServlet(ctx, GenresServlet.class.getSimpleName(), new GenresServlet()).setAsyncSupported(true);
         ctx.addServletMappingDecoded("/genres/*", GenresServlet.class.getSimpleName());
 
-        Tomcat.addServlet(ctx, ReviewsServlet.class.getSimpleName(), new ReviewsServlet());
+        Tomcat.addServlet(ctx, ReviewsServlet.class.getSimpleName(), new ReviewsServlet()).setAsyncSupported(true);
         ctx.addServletMappingDecoded("/reviews/*", ReviewsServlet.class.getSimpleName());
 
+        Tomcat.addServlet(ctx, SearchServlet.class.getSimpleName(), new SearchServlet());
+        ctx.addServletMappingDecoded("/search", SearchServlet.class.getSimpleName());
+
+        Tomcat.addServlet(ctx, MetricsServlet.class.getSimpleName(), new MetricsServlet());
+        ctx.addServletMappingDecoded("/metrics", MetricsServlet.class.getSimpleName());
+
+        var metricsFilter = new FilterDef();
+        metricsFilter.setFilterName(HttpMetricsFilter.class.getSimpleName());
+        metricsFilter.setFilter(new HttpMetricsFilter());
+        metricsFilter.setAsyncSupported("true");
+        ctx.addFilterDef(metricsFilter);
+
+        var metricsFilterMap = new FilterMap();
+        metricsFilterMap.setFilterName(HttpMetricsFilter.class.getSimpleName());
+        metricsFilterMap.addURLPattern("/*");
+        ctx.addFilterMap(metricsFilterMap);
+
+        if (isCompression()) {
+            var gzipETagFilter = new FilterDef();
+            gzipETagFilter.setFilterName(GzipETagFilter.class.getSimpleName());
+            gzipETagFilter.setFilter(new GzipETagFilter());
+            gzipETagFilter.setAsyncSupported("true");
+            ctx.addFilterDef(gzipETagFilter);
+
+            var gzipETagFilterMap = new FilterMap();
+            gzipETagFilterMap.setFilterName(GzipETagFilter.class.getSimpleName());
+            gzipETagFilterMap.addURLPattern("/*");
+            ctx.addFilterMap(gzipETagFilterMap);
+        }
+
         return tomcat;
     }
 
@@ -0,0 +1,33 @@
+package org.example;
+
+import org.example.component.BookImporter;
+import org.example.repository.BaseRepository;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+public class ImportApp {
+    public static void main(String[] args) throws IOException, SQLException {
+        if (args.length != 1) {
+            System.err.println("Usage: ImportApp <books.csv | books.ndjson>");
+            System.exit(1);
+        }
+
+        var path = Path.of(args[0]);
+        var isCsv = path.getFileName().toString().endsWith(".csv");
+
+        App.connectDatabase();
+        try (var in = new BufferedInputStream(Files.newInputStream(path));
+             var rows = isCsv ? BookImporter.readCsv(in) : BookImporter.readNdjson(in)) {
+            var result = BookImporter.importBooks(rows);
+            System.out.printf("Imported %d books and %d reviews from %d rows, skipped %d, in %d ms (%d rows/s)%n",
+                    result.getBooks(), result.getReviews(), result.getRows(), result.getSkipped(),
+                    result.getElapsedMillis(), result.getRowsPerSecond());
+        } finally {
+            BaseRepository.dataSource.close();
+        }
+    }
+}
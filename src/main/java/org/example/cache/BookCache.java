@@ -0,0 +1,94 @@
+package org.example.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.entity.Book;
+import org.example.metrics.AppMetrics;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Optional;
+
+// Books by id, read through on a miss and invalidated by every write in BooksRepository. Caffeine evicts
+// with W-TinyLFU, so a burst of one-off reads does not push out the titles that are read all the time.
+// Misses are loaded through ReadThrough, so invalidate(id) waits for a load that is in flight.
+// invalidateAll gives no such guarantee for loads in flight, so it only empties the cache when the books
+// table itself is cleared; a genre update invalidates the cached books of the genre with invalidateGenre.
+// Titles only map to ids and are checked against the cached book, so a renamed or deleted book is never
+// returned for its old title and titles need no invalidation of their own.
+public class BookCache {
+    private static final int MAXIMUM_SIZE = 10_000;
+
+    // bounds how long a book changed outside the application can be served stale
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(10);
+
+    private static final Cache<Long, Book> BY_ID = CaffeineCacheMetrics.monitor(AppMetrics.getRegistry(),
+            Caffeine.newBuilder()
+                    .maximumSize(MAXIMUM_SIZE)
+                    .expireAfterWrite(TIME_TO_LIVE)
+                    .recordStats()
+                    .<Long, Book>build(),
+            "books.by_id");
+
+    private static final ReadThrough<Long, Book> BY_ID_LOADS = new ReadThrough<>(BY_ID);
+
+    private static final Cache<String, Long> ID_BY_TITLE = CaffeineCacheMetrics.monitor(AppMetrics.getRegistry(),
+            Caffeine.newBuilder()
+                    .maximumSize(MAXIMUM_SIZE)
+                    .expireAfterWrite(TIME_TO_LIVE)
+                    .recordStats()
+                    .<String, Long>build(),
+            "books.id_by_title");
+
+    public static Optional<Book> getById(Long id, ReadThrough.Loader<Long, Book> loader) throws SQLException {
+        return BY_ID_LOADS.get(id, loader);
+    }
+
+    public static Optional<Book> getIfPresent(Long id) {
+        return Optional.ofNullable(BY_ID.getIfPresent(id));
+    }
+
+    public static Optional<Long> getIdByTitle(String title) {
+        if (title == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(ID_BY_TITLE.getIfPresent(title));
+    }
+
+    public static void putTitle(Book book) {
+        ID_BY_TITLE.put(book.getTitle(), book.getId());
+    }
+
+    public static void invalidateTitle(String title) {
+        if (title != null) {
+            ID_BY_TITLE.invalidate(title);
+        }
+    }
+
+    public static void invalidate(Long id) {
+        BY_ID.invalidate(id);
+    }
+
+    // the books carry their genre, with its name and version
+    public static void invalidateGenre(Long genreId) {
+        BY_ID_LOADS.invalidateIf(book -> genreId.equals(book.getGenre().getId()));
+    }
+
+    public static void invalidateAll() {
+        BY_ID.invalidateAll();
+        ID_BY_TITLE.invalidateAll();
+    }
+
+    public static long getHitCount() {
+        return BY_ID.stats().hitCount();
+    }
+
+    public static long getMissCount() {
+        return BY_ID.stats().missCount();
+    }
+
+    public static long getEvictionCount() {
+        return BY_ID.stats().evictionCount();
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.entity.Genre;
+import org.example.metrics.AppMetrics;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Optional;
+
+// Genres by id, read through on a miss the same way as BookCache: ReadThrough loads inside the cache's
+// compute for the id, so invalidate(id) waits for a load in flight and a genre read before an update or
+// delete is never cached after it. Names only map to ids and are checked against the cached genre.
+public class GenreCache {
+    private static final int MAXIMUM_SIZE = 1_000;
+
+    // bounds how long a genre changed outside the application can be served stale
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(10);
+
+    private static final Cache<Long, Genre> BY_ID = CaffeineCacheMetrics.monitor(AppMetrics.getRegistry(),
+            Caffeine.newBuilder()
+                    .maximumSize(MAXIMUM_SIZE)
+                    .expireAfterWrite(TIME_TO_LIVE)
+                    .recordStats()
+                    .<Long, Genre>build(),
+            "genres.by_id");
+
+    private static final ReadThrough<Long, Genre> BY_ID_LOADS = new ReadThrough<>(BY_ID);
+
+    private static final Cache<String, Long> ID_BY_NAME = CaffeineCacheMetrics.monitor(AppMetrics.getRegistry(),
+            Caffeine.newBuilder()
+                    .maximumSize(MAXIMUM_SIZE)
+                    .expireAfterWrite(TIME_TO_LIVE)
+                    .recordStats()
+                    .<String, Long>build(),
+            "genres.id_by_name");
+
+    public static Optional<Genre> getById(Long id, ReadThrough.Loader<Long, Genre> loader) throws SQLException {
+        return BY_ID_LOADS.get(id, loader);
+    }
+
+    public static Optional<Genre> getIfPresent(Long id) {
+        return Optional.ofNullable(BY_ID.getIfPresent(id));
+    }
+
+    public static Optional<Long> getIdByName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(ID_BY_NAME.getIfPresent(name));
+    }
+
+    public static void putName(Genre genre) {
+        ID_BY_NAME.put(genre.getName(), genre.getId());
+    }
+
+    public static void invalidate(Long id) {
+        BY_ID.invalidate(id);
+        // the old name of a renamed or deleted genre is not known to the caller
+        ID_BY_NAME.asMap().values().removeIf(id::equals);
+    }
+
+    public static void invalidate(String name) {
+        if (name != null) {
+            ID_BY_NAME.invalidate(name);
+        }
+    }
+
+    public static void invalidateAll() {
+        BY_ID.invalidateAll();
+        ID_BY_NAME.invalidateAll();
+    }
+
+    public static long getHitCount() {
+        return BY_ID.stats().hitCount();
+    }
+
+    public static long getMissCount() {
+        return BY_ID.stats().missCount();
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.cache;
+
+import org.example.dto.GenreStatsDTO;
+import org.example.entity.Genre;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Book and review counts per genre, kept up to date by the repositories on every write so that
+// the stats endpoints never run COUNT queries. GenreStatsReconciler periodically replaces them with
+// the counts from the database to repair drift, e.g. from writes racing with each other.
+public class GenreStats {
+    private static final Map<Long, Counters> COUNTERS = new ConcurrentHashMap<>();
+
+    private static class Counters {
+        private volatile String genreName;
+        private final AtomicLong books = new AtomicLong();
+        private final AtomicLong reviews = new AtomicLong();
+    }
+
+    public static void putGenre(Genre genre) {
+        counters(genre.getId()).genreName = genre.getName();
+    }
+
+    public static void removeGenre(Long genreId) {
+        COUNTERS.remove(genreId);
+    }
+
+    public static void addBook(Long genreId) {
+        counters(genreId).books.incrementAndGet();
+    }
+
+    public static void removeBook(Long genreId, boolean reviewed) {
+        var counters = counters(genreId);
+        counters.books.decrementAndGet();
+        if (reviewed) {
+            counters.reviews.decrementAndGet();
+        }
+    }
+
+    public static void moveBook(Long fromGenreId, Long toGenreId, boolean reviewed) {
+        if (fromGenreId.equals(toGenreId)) {
+            return;
+        }
+        removeBook(fromGenreId, reviewed);
+        addBook(toGenreId);
+        if (reviewed) {
+            addReview(toGenreId);
+        }
+    }
+
+    public static void addReview(Long genreId) {
+        counters(genreId).reviews.incrementAndGet();
+    }
+
+    public static void removeReview(Long genreId) {
+        counters(genreId).reviews.decrementAndGet();
+    }
+
+    // all books, and with them all reviews, were deleted; the genres are still there
+    public static void removeAllBooks() {
+        COUNTERS.values().forEach(counters -> {
+            counters.books.set(0);
+            counters.reviews.set(0);
+        });
+    }
+
+    public static void clear() {
+        COUNTERS.clear();
+    }
+
+    public static Optional<GenreStatsDTO> get(Long genreId) {
+        return Optional.ofNullable(COUNTERS.get(genreId)).map(counters -> toDTO(genreId, counters));
+    }
+
+    public static List<GenreStatsDTO> getAll() {
+        return COUNTERS.entrySet().stream()
+                .map(entry -> toDTO(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparing(GenreStatsDTO::getGenreId))
+                .toList();
+    }
+
+    // replaces the counters with the counts from the database and returns how many genres were off
+    public static int replaceAll(List<GenreStatsDTO> actualStats) {
+        var corrected = 0;
+        var genreIds = new HashSet<Long>();
+        for (var actual : actualStats) {
+            genreIds.add(actual.getGenreId());
+            var counters = counters(actual.getGenreId());
+            counters.genreName = actual.getGenreName();
+            var books = counters.books.getAndSet(actual.getBookCount());
+            var reviews = counters.reviews.getAndSet(actual.getReviewCount());
+            if (books != actual.getBookCount() || reviews != actual.getReviewCount()) {
+                corrected++;
+            }
+        }
+        COUNTERS.keySet().retainAll(genreIds);
+        return corrected;
+    }
+
+    private static Counters counters(Long genreId) {
+        return COUNTERS.computeIfAbsent(genreId, id -> new Counters());
+    }
+
+    private static GenreStatsDTO toDTO(Long genreId, Counters counters) {
+        var genreStatsDTO = new GenreStatsDTO();
+        genreStatsDTO.setGenreId(genreId);
+        genreStatsDTO.setGenreName(counters.genreName);
+        genreStatsDTO.setBookCount(counters.books.get());
+        genreStatsDTO.setReviewCount(counters.reviews.get());
+
+        return genreStatsDTO;
+    }
+}
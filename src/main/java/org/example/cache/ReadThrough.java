@@ -0,0 +1,75 @@
+package org.example.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+// Loads a missing entry inside the cache's compute for its key, which makes invalidate(key) wait for a load
+// that is in flight: a value read before a write can never be cached after the write has invalidated it.
+// A loader returning empty leaves no entry, so missing rows are not cached.
+public class ReadThrough<K, V> {
+    private final Cache<K, V> cache;
+
+    // keys being loaded with the number of threads waiting for each; a key stays here until its entry is in
+    // the cache, which invalidateIf relies on
+    private final ConcurrentHashMap<K, Integer> loading = new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        Optional<V> load(K key) throws SQLException;
+    }
+
+    public ReadThrough(Cache<K, V> cache) {
+        this.cache = cache;
+    }
+
+    public Optional<V> get(K key, Loader<K, V> loader) throws SQLException {
+        // records the hit or miss, the compute below goes through asMap and records nothing
+        var cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        loading.merge(key, 1, Integer::sum);
+        try {
+            return Optional.ofNullable(cache.asMap().computeIfAbsent(key, k -> {
+                try {
+                    return loader.load(k).orElse(null);
+                } catch (SQLException e) {
+                    throw new LoadException(e);
+                }
+            }));
+        } catch (LoadException e) {
+            throw e.getCause();
+        } finally {
+            loading.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    // Invalidates the cached entries matching the filter, bounded by the cache size rather than by the rows
+    // they were read from. A load in flight has no entry to test yet, so every key being loaded is invalidated
+    // too, which waits for its load; the keys are read before the entries, so a load that finishes in between
+    // is found among the entries.
+    public void invalidateIf(Predicate<V> filter) {
+        for (var key : new ArrayList<>(loading.keySet())) {
+            cache.invalidate(key);
+        }
+        cache.asMap().values().removeIf(filter);
+    }
+
+    // carries the loader's SQLException out of the compute, which only lets unchecked exceptions through
+    private static class LoadException extends RuntimeException {
+        LoadException(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+}
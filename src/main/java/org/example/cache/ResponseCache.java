@@ -0,0 +1,95 @@
+package org.example.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.metrics.AppMetrics;
+import org.example.util.JsonBuffer;
+import org.example.util.JsonWriter;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.example.util.ETagUtil.setETag;
+
+// Serialized JSON of single books, genres and reviews with their ETags, so a hit is written with one
+// ServletOutputStream.write without loading the entity or building its DTO. The repositories invalidate
+// an entry after every write to the entity or to an entity embedded in it, after the entity caches: as in
+// BookCache, the response is built through ReadThrough, so it can never outlive invalidate(id).
+// invalidateAll does not wait for responses being built and is only used when the table is cleared.
+public class ResponseCache {
+    // bytes of serialized JSON per resource type
+    private static final long MAXIMUM_WEIGHT = 8 * 1024 * 1024;
+
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(10);
+
+    public static final ResponseCache BOOKS = new ResponseCache("responses.books");
+    public static final ResponseCache GENRES = new ResponseCache("responses.genres");
+    public static final ResponseCache REVIEWS = new ResponseCache("responses.reviews");
+
+    private final Cache<Long, CachedResponse> cache;
+    private final ReadThrough<Long, CachedResponse> loads;
+
+    // parentId is the entity embedded in the response that is written on its own, a book's genre
+    public record CachedResponse(byte[] body, String etag, Long parentId) {
+    }
+
+    private ResponseCache(String name) {
+        cache = CaffeineCacheMetrics.monitor(AppMetrics.getRegistry(),
+                Caffeine.newBuilder()
+                        .maximumWeight(MAXIMUM_WEIGHT)
+                        .weigher((Long id, CachedResponse cachedResponse) -> cachedResponse.body().length)
+                        .expireAfterWrite(TIME_TO_LIVE)
+                        .recordStats()
+                        .build(),
+                name);
+        loads = new ReadThrough<>(cache);
+    }
+
+    public <T, D> Optional<CachedResponse> get(Long id, ReadThrough.Loader<Long, T> loader, Function<T, D> toDTO,
+                                               JsonWriter<D> dtoWriter, Function<T, String> toETag)
+            throws SQLException {
+        return get(id, loader, toDTO, dtoWriter, toETag, entity -> null);
+    }
+
+    public <T, D> Optional<CachedResponse> get(Long id, ReadThrough.Loader<Long, T> loader, Function<T, D> toDTO,
+                                               JsonWriter<D> dtoWriter, Function<T, String> toETag,
+                                               Function<T, Long> toParentId)
+            throws SQLException {
+        return loads.get(id, key -> loader.load(key)
+                .map(entity -> new CachedResponse(JsonBuffer.toBytes(dtoWriter, toDTO.apply(entity)),
+                        toETag.apply(entity), toParentId.apply(entity))));
+    }
+
+    public Optional<String> getETag(Long id) {
+        return Optional.ofNullable(cache.getIfPresent(id)).map(CachedResponse::etag);
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateParent(Long parentId) {
+        loads.invalidateIf(cachedResponse -> parentId.equals(cachedResponse.parentId()));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public static void write(HttpServletResponse response, CachedResponse cachedResponse) throws IOException {
+        setETag(response, cachedResponse.etag());
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLength(cachedResponse.body().length);
+        response.getOutputStream().write(cachedResponse.body());
+    }
+}
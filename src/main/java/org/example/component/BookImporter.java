@@ -0,0 +1,129 @@
+package org.example.component;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.example.dto.BookImportDTO;
+import org.example.dto.ImportResultDTO;
+import org.example.entity.Book;
+import org.example.entity.Review;
+import org.example.repository.BooksRepository;
+import org.example.repository.GenresRepository;
+import org.example.repository.ReviewsRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class BookImporter {
+    private static final int CHUNK_SIZE = 1_000;
+    private static final int PROGRESS_INTERVAL = 100_000;
+
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    // rows are parsed one at a time from the stream, the whole input is never held in memory
+    public static MappingIterator<BookImportDTO> readCsv(InputStream in) throws IOException {
+        return CSV_MAPPER.readerFor(BookImportDTO.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValues(in);
+    }
+
+    public static MappingIterator<BookImportDTO> readNdjson(InputStream in) throws IOException {
+        return OBJECT_MAPPER.readerFor(BookImportDTO.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValues(in);
+    }
+
+    public static ImportResultDTO importBooks(Iterator<BookImportDTO> rows) throws SQLException {
+        var result = new ImportResultDTO();
+        var startNanos = System.nanoTime();
+        var chunk = new ArrayList<BookImportDTO>(CHUNK_SIZE);
+
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() == CHUNK_SIZE) {
+                importChunk(chunk, result);
+                chunk.clear();
+
+                if (result.getRows() % PROGRESS_INTERVAL == 0) {
+                    log.info("Imported {} rows, {} rows/s", result.getRows(), rowsPerSecond(result, startNanos));
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, result);
+        }
+
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        result.setRowsPerSecond(rowsPerSecond(result, startNanos));
+        log.info("Import finished: {} rows, {} books, {} reviews, {} skipped in {} ms ({} rows/s)",
+                result.getRows(), result.getBooks(), result.getReviews(), result.getSkipped(),
+                result.getElapsedMillis(), result.getRowsPerSecond());
+
+        return result;
+    }
+
+    private static void importChunk(List<BookImportDTO> rows, ImportResultDTO result) throws SQLException {
+        var genreNames = new HashSet<String>();
+        var titles = new HashSet<String>();
+        for (var row : rows) {
+            if (isValid(row)) {
+                genreNames.add(row.getGenreName());
+                titles.add(row.getTitle());
+            }
+        }
+        var genres = GenresRepository.findByNames(genreNames);
+        // earlier chunks are already committed, so titles repeated across the file are found here too
+        var takenTitles = new HashSet<>(BooksRepository.findExistingTitles(titles));
+
+        var books = new ArrayList<Book>(rows.size());
+        var reviews = new ArrayList<Review>();
+        for (var row : rows) {
+            if (!isValid(row) || !genres.containsKey(row.getGenreName()) || !takenTitles.add(row.getTitle())) {
+                result.setSkipped(result.getSkipped() + 1);
+                continue;
+            }
+
+            var book = new Book(row.getTitle(), row.getAuthor(), genres.get(row.getGenreName()));
+            books.add(book);
+            if (StringUtils.isNotBlank(row.getReview())) {
+                reviews.add(new Review(row.getReview(), book));
+            }
+        }
+
+        if (!books.isEmpty()) {
+            BooksRepository.saveAll(books);
+        }
+        if (!reviews.isEmpty()) {
+            ReviewsRepository.saveAll(reviews);
+        }
+
+        result.setRows(result.getRows() + rows.size());
+        result.setBooks(result.getBooks() + books.size());
+        result.setReviews(result.getReviews() + reviews.size());
+    }
+
+    private static boolean isValid(BookImportDTO row) {
+        return row != null
+                && StringUtils.isNotBlank(row.getTitle())
+                && StringUtils.isNotBlank(row.getAuthor())
+                && StringUtils.isNotBlank(row.getGenreName());
+    }
+
+    private static long rowsPerSecond(ImportResultDTO result, long startNanos) {
+        var elapsedNanos = Math.max(System.nanoTime() - startNanos, 1);
+        return result.getRows() * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import org.example.metrics.AppMetrics;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs repository work off the Tomcat request threads. The pool is sized to the connection pool so that
+// every worker can hold a connection, and the queue is bounded so that overload is rejected early
+// instead of turning into ever growing latency. With virtual request threads it is not started and the
+// connection pool is the only limit.
+public class DbExecutor {
+    private static final Counter REJECTED = Counter.builder("db.executor.rejected")
+            .description("Requests rejected because the database executor queue was full")
+            .register(AppMetrics.getRegistry());
+
+    private static volatile ThreadPoolExecutor executor;
+
+    public static synchronized void start(int threads, int queueCapacity) {
+        if (executor != null) {
+            executor.shutdown();
+        }
+
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), newThreadFactory());
+
+        var registry = AppMetrics.getRegistry();
+        Gauge.builder("db.executor.queued", DbExecutor::getQueued)
+                .description("Requests waiting for a database executor thread")
+                .register(registry);
+        Gauge.builder("db.executor.active", DbExecutor::getActive)
+                .description("Database executor threads running a request")
+                .register(registry);
+    }
+
+    // no executor, AsyncServlet runs handlers on the request thread
+    public static synchronized void startInline() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    public static boolean isInline() {
+        return executor == null;
+    }
+
+    public static void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            REJECTED.increment();
+            throw e;
+        }
+    }
+
+    private static double getQueued() {
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    private static double getActive() {
+        return executor == null ? 0 : executor.getActiveCount();
+    }
+
+    private static ThreadFactory newThreadFactory() {
+        var counter = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, "db-executor-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
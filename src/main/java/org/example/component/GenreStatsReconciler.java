@@ -0,0 +1,53 @@
+package org.example.component;
+
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cache.GenreStats;
+import org.example.metrics.AppMetrics;
+import org.example.repository.GenresRepository;
+
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Loads GenreStats from the database at startup and then recounts them periodically. The repositories
+// update the counters after their statements, so a write that lands between the recount query and the
+// replacement can be lost or counted twice; the next run repairs it.
+@Slf4j
+public class GenreStatsReconciler {
+    private static final Counter CORRECTIONS = Counter.builder("genre.stats.corrections")
+            .description("Genres whose counters differed from the database when they were reconciled")
+            .register(AppMetrics.getRegistry());
+
+    private static ScheduledExecutorService scheduler;
+
+    public static synchronized void start(long periodSeconds) throws SQLException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+
+        GenreStats.clear();
+        GenreStats.replaceAll(GenresRepository.findStats());
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "genre-stats-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(GenreStatsReconciler::reconcile,
+                periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    public static void reconcile() {
+        try {
+            var corrected = GenreStats.replaceAll(GenresRepository.findStats());
+            if (corrected > 0) {
+                CORRECTIONS.increment(corrected);
+                log.warn("Corrected stats of {} genres", corrected);
+            }
+        } catch (SQLException e) {
+            log.error("Could not reconcile genre stats", e);
+        }
+    }
+}
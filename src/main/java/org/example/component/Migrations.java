@@ -0,0 +1,104 @@
+package org.example.component;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+// Applies the scripts in db/migration in order and records each one in schema_version, so every start
+// only runs the scripts the database has not seen yet. A released script is never edited, a schema change
+// goes into a new script appended to MIGRATIONS.
+@Slf4j
+public class Migrations {
+    private static final String LOCATION = "db/migration/";
+    private static final List<String> MIGRATIONS = List.of(
+            "V1__create_tables.sql",
+            "V2__add_version_columns.sql",
+            "V3__add_filter_indexes.sql"
+    );
+
+    private static final String CREATE_SCHEMA_VERSION = """
+            CREATE TABLE IF NOT EXISTS schema_version (
+              version INT NOT NULL,
+              description VARCHAR(255) NOT NULL,
+              applied_at TIMESTAMP NOT NULL,
+              CONSTRAINT PK_schema_version PRIMARY KEY (version)
+            )
+            """;
+
+    public static void migrate(DataSource dataSource) throws SQLException, IOException {
+        try (var conn = dataSource.getConnection()) {
+            try (var stmt = conn.createStatement()) {
+                stmt.execute(CREATE_SCHEMA_VERSION);
+            }
+
+            var appliedVersions = findAppliedVersions(conn);
+            for (var migration : MIGRATIONS) {
+                var version = getVersion(migration);
+                if (!appliedVersions.contains(version)) {
+                    apply(conn, version, migration);
+                }
+            }
+        }
+    }
+
+    private static Set<Integer> findAppliedVersions(Connection conn) throws SQLException {
+        var versions = new HashSet<Integer>();
+        try (var stmt = conn.createStatement();
+             var resultSet = stmt.executeQuery("SELECT version FROM schema_version")) {
+            while (resultSet.next()) {
+                versions.add(resultSet.getInt("version"));
+            }
+        }
+        return versions;
+    }
+
+    // the script and its schema_version row are committed together where the database has transactional DDL,
+    // a second instance starting at the same time fails on the primary key instead of applying it twice
+    private static void apply(Connection conn, int version, String migration) throws SQLException, IOException {
+        log.info("Applying migration {}", migration);
+        var sql = readScript(migration);
+
+        conn.setAutoCommit(false);
+        try (var stmt = conn.createStatement();
+             var insert = conn.prepareStatement(
+                     "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)")) {
+            stmt.execute(sql);
+            insert.setInt(1, version);
+            insert.setString(2, getDescription(migration));
+            insert.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+            insert.executeUpdate();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static String readScript(String migration) throws IOException {
+        try (InputStream is = Migrations.class.getClassLoader().getResourceAsStream(LOCATION + migration)) {
+            return new String(Objects.requireNonNull(is, migration).readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    // V3__add_filter_indexes.sql -> 3
+    private static int getVersion(String migration) {
+        return Integer.parseInt(migration.substring(1, migration.indexOf("__")));
+    }
+
+    // V3__add_filter_indexes.sql -> add filter indexes
+    private static String getDescription(String migration) {
+        return migration.substring(migration.indexOf("__") + 2, migration.lastIndexOf('.')).replace('_', ' ');
+    }
+}
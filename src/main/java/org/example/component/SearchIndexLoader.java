@@ -0,0 +1,22 @@
+package org.example.component;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.repository.BooksRepository;
+import org.example.repository.ReviewsRepository;
+import org.example.search.SearchIndex;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+// builds the search index from the database once at startup; repositories keep it up to date afterwards
+@Slf4j
+public class SearchIndexLoader {
+    public static void run() throws SQLException, IOException {
+        var startedAt = System.nanoTime();
+        SearchIndex.clear();
+        BooksRepository.streamAll(SearchIndex::putBook);
+        ReviewsRepository.streamAll(review -> SearchIndex.putReview(review.getId(), review.getContent()));
+        var elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        log.info("Indexed {} books for search in {} ms", SearchIndex.size(), elapsedMillis);
+    }
+}
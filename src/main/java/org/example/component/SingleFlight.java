@@ -0,0 +1,76 @@
+package org.example.component;
+
+import io.micrometer.core.instrument.Counter;
+import org.example.metrics.AppMetrics;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Lets only one call per key run at a time: callers that arrive while it is in flight wait for its result
+// instead of running the same query again, so a burst of identical reads takes one pooled connection rather
+// than all of them. Nothing is kept once the call completes, the next caller runs the query again.
+// The result is handed to every waiting caller, so it must not be modified by them.
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    @FunctionalInterface
+    public interface Call<V> {
+        V call() throws SQLException;
+    }
+
+    public SingleFlight(String name) {
+        var registry = AppMetrics.getRegistry();
+        executed = Counter.builder("single.flight.calls")
+                .description("Calls that ran, or waited for a call with the same key that was in flight")
+                .tag("name", name)
+                .tag("result", "executed")
+                .register(registry);
+        coalesced = Counter.builder("single.flight.calls")
+                .description("Calls that ran, or waited for a call with the same key that was in flight")
+                .tag("name", name)
+                .tag("result", "coalesced")
+                .register(registry);
+    }
+
+    public V execute(K key, Call<V> call) throws SQLException {
+        var future = new CompletableFuture<V>();
+        var running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        executed.increment();
+        try {
+            var value = call.call();
+            future.complete(value);
+            return value;
+        } catch (SQLException | RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    public double getCoalescedCount() {
+        return coalesced.count();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) throws SQLException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // wrapped so that the waiting caller's stack trace shows where it waited
+            if (e.getCause() instanceof SQLException cause) {
+                throw new SQLException(cause.getMessage(), cause.getSQLState(), cause.getErrorCode(), cause);
+            }
+            throw e;
+        }
+    }
+}
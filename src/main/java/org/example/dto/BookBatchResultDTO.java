@@ -0,0 +1,17 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookBatchResultDTO {
+
+    private int status;
+
+    private Long id;
+
+    private String error;
+}
@@ -0,0 +1,17 @@
+package org.example.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class BookImportDTO {
+
+    private String title;
+
+    private String author;
+
+    private String genreName;
+
+    private String review;
+}
@@ -0,0 +1,17 @@
+package org.example.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class GenreStatsDTO {
+
+    private Long genreId;
+
+    private String genreName;
+
+    private long bookCount;
+
+    private long reviewCount;
+}
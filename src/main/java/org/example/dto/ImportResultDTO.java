@@ -0,0 +1,21 @@
+package org.example.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ImportResultDTO {
+
+    private long rows;
+
+    private long books;
+
+    private long reviews;
+
+    private long skipped;
+
+    private long elapsedMillis;
+
+    private long rowsPerSecond;
+}
@@ -0,0 +1,17 @@
+package org.example.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class SearchResultDTO {
+
+    private Long id;
+
+    private String title;
+
+    private String author;
+
+    private double score;
+}
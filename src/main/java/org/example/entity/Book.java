@@ -19,6 +19,9 @@ public class Book { // почему у сещности нет equals и hashcod
 
     private Timestamp createdAt;
 
+    // incremented on every update, used to build ETags
+    private Long version;
+
     public Book(String title, String author, Genre genre) {
         this.title = title;
         this.author = author;
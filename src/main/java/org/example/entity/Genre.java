@@ -15,6 +15,8 @@ public class Genre {
 
     private Timestamp createdAt;
 
+    private Long version;
+
     public Genre(String name) {
         this.name = name;
     }
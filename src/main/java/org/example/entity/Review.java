@@ -17,6 +17,8 @@ public class Review {
 
     private Timestamp createdAt;
 
+    private Long version;
+
     public Review(String content, Book book) {
         this.content = content;
         this.book = book;
@@ -2,6 +2,11 @@ package org.example.mapper;
 
 import org.example.dto.BookDTO;
 import org.example.entity.Book;
+import org.example.entity.Genre;
+import org.example.util.ETagUtil;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
 
 public class BookMapper {
     public static BookDTO toDTO(Book book) {
@@ -13,4 +18,26 @@ public class BookMapper {
 
         return bookDTO;
     }
+
+    // expects a books/genres join row with genre columns labeled genre_id, genre_name, genre_created_at
+    // and genre_version
+    public static Book toEntity(ResultSet resultSet) throws SQLException {
+        var genre = new Genre(resultSet.getString("genre_name"));
+        genre.setId(resultSet.getLong("genre_id"));
+        genre.setCreatedAt(resultSet.getTimestamp("genre_created_at"));
+        genre.setVersion(resultSet.getLong("genre_version"));
+
+        var book = new Book(resultSet.getString("title"), resultSet.getString("author"), genre);
+        book.setId(resultSet.getLong("id"));
+        book.setCreatedAt(resultSet.getTimestamp("created_at"));
+        book.setVersion(resultSet.getLong("version"));
+
+        return book;
+    }
+
+    // reads only the columns the ETag depends on, so pages can be validated without building entities
+    public static String toETag(ResultSet resultSet) throws SQLException {
+        return ETagUtil.bookTag(resultSet.getLong("id"), resultSet.getLong("version"),
+                resultSet.getLong("genre_version"));
+    }
 }
@@ -1,7 +1,12 @@
 package org.example.mapper;
 
 import org.example.dto.GenreDTO;
+import org.example.dto.GenreStatsDTO;
 import org.example.entity.Genre;
+import org.example.util.ETagUtil;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
 
 public class GenreMapper {
     public static GenreDTO toDTO(Genre genre) {
@@ -11,4 +16,27 @@ public class GenreMapper {
 
         return genreDTO;
     }
+
+    public static Genre toEntity(ResultSet resultSet) throws SQLException {
+        var genre = new Genre(resultSet.getString("name"));
+        genre.setId(resultSet.getLong("id"));
+        genre.setCreatedAt(resultSet.getTimestamp("created_at"));
+        genre.setVersion(resultSet.getLong("version"));
+
+        return genre;
+    }
+
+    public static String toETag(ResultSet resultSet) throws SQLException {
+        return ETagUtil.genreTag(resultSet.getLong("id"), resultSet.getLong("version"));
+    }
+
+    public static GenreStatsDTO toStatsDTO(ResultSet resultSet) throws SQLException {
+        var genreStatsDTO = new GenreStatsDTO();
+        genreStatsDTO.setGenreId(resultSet.getLong("id"));
+        genreStatsDTO.setGenreName(resultSet.getString("name"));
+        genreStatsDTO.setBookCount(resultSet.getLong("book_count"));
+        genreStatsDTO.setReviewCount(resultSet.getLong("review_count"));
+
+        return genreStatsDTO;
+    }
 }
@@ -2,6 +2,10 @@ package org.example.mapper;
 
 import org.example.dto.ReviewDTO;
 import org.example.entity.Review;
+import org.example.util.ETagUtil;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
 
 public class ReviewMapper {
     public static ReviewDTO toDTO(Review review) {
@@ -13,4 +17,21 @@ public class ReviewMapper {
 
         return reviewDTO;
     }
+
+    // expects a reviews/books/genres join row: book columns as for BookMapper.toEntity,
+    // plus content, review_created_at and review_version
+    public static Review toEntity(ResultSet resultSet) throws SQLException {
+        var book = BookMapper.toEntity(resultSet);
+        var review = new Review(resultSet.getString("content"), book);
+        review.setId(book.getId());
+        review.setCreatedAt(resultSet.getTimestamp("review_created_at"));
+        review.setVersion(resultSet.getLong("review_version"));
+
+        return review;
+    }
+
+    public static String toETag(ResultSet resultSet) throws SQLException {
+        return ETagUtil.reviewTag(resultSet.getLong("id"), resultSet.getLong("review_version"),
+                resultSet.getLong("version"));
+    }
 }
@@ -0,0 +1,34 @@
+package org.example.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+public class AppMetrics {
+    private static final PrometheusMeterRegistry REGISTRY = createRegistry();
+
+    public static PrometheusMeterRegistry getRegistry() {
+        return REGISTRY;
+    }
+
+    private static PrometheusMeterRegistry createRegistry() {
+        var registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        // HikariCP only publishes summaries for its timers, a histogram is needed to get
+        // the connection acquire time percentiles in Prometheus
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getName().startsWith("hikaricp.connections.")) {
+                    return DistributionStatisticConfig.builder()
+                            .percentilesHistogram(true)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        });
+        return registry;
+    }
+}
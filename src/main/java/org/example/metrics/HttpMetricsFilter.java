@@ -0,0 +1,122 @@
+package org.example.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import org.example.util.Route;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class HttpMetricsFilter implements Filter {
+    private static final String UNMATCHED = "unmatched";
+
+    private final Map<String, String> servletNames = new HashMap<>();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+        var registrations = filterConfig.getServletContext().getServletRegistrations();
+        for (var registration : registrations.values()) {
+            for (var mapping : registration.getMappings()) {
+                var servletPath = mapping.endsWith("/*") ? mapping.substring(0, mapping.length() - 2) : mapping;
+                servletNames.put(servletPath, registration.getName());
+            }
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        var httpRequest = (HttpServletRequest) request;
+        var httpResponse = (HttpServletResponse) response;
+        var servlet = servletNames.getOrDefault(httpRequest.getServletPath(), UNMATCHED);
+        var active = inFlight.computeIfAbsent(servlet, HttpMetricsFilter::registerInFlight);
+
+        active.incrementAndGet();
+        var startNanos = System.nanoTime();
+        var failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                // the servlet handed the request to another thread, it is done when the async context completes
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(httpRequest, httpResponse.getStatus(), servlet, active, startNanos);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        // onComplete follows
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        // onComplete follows
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                        // not restarted
+                    }
+                });
+            } else {
+                var status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : httpResponse.getStatus();
+                record(httpRequest, status, servlet, active, startNanos);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // the meters stay registered for the life of the registry
+    }
+
+    private static void record(HttpServletRequest request, int status, String servlet, AtomicInteger active,
+                               long startNanos) {
+        active.decrementAndGet();
+        Timer.builder("http.server.requests")
+                .tags("servlet", servlet,
+                        "action", action(request, status),
+                        "method", request.getMethod(),
+                        "status", Integer.toString(status))
+                .publishPercentileHistogram()
+                .register(AppMetrics.getRegistry())
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static AtomicInteger registerInFlight(String servlet) {
+        var active = new AtomicInteger();
+        Gauge.builder("http.server.requests.active", active, AtomicInteger::get)
+                .description("Requests currently being handled")
+                .tag("servlet", servlet)
+                .register(AppMetrics.getRegistry());
+        return active;
+    }
+
+    // ids and unknown path segments would give every request its own time series
+    private static String action(HttpServletRequest request, int status) {
+        var route = Route.of(request);
+        if (route == null || status == HttpServletResponse.SC_NOT_FOUND && route.getAction() != Route.Action.SHOW) {
+            return UNMATCHED;
+        }
+        return route.getAction().getLabel();
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.metrics;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class QueryTimer implements AutoCloseable {
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+
+    private final Timer timer;
+    private final long startNanos;
+
+    private QueryTimer(Timer timer) {
+        this.timer = timer;
+        this.startNanos = System.nanoTime();
+    }
+
+    // opened as the first resource of a try block, so the recorded time covers the statement,
+    // reading the result set and returning the connection to the pool
+    public static QueryTimer start(String query) {
+        return new QueryTimer(TIMERS.computeIfAbsent(query, QueryTimer::register));
+    }
+
+    private static Timer register(String query) {
+        return Timer.builder("repository.query")
+                .description("Time spent in a repository method, from statement to releasing the connection")
+                .tag("query", query)
+                .publishPercentileHistogram()
+                .register(AppMetrics.getRegistry());
+    }
+
+    @Override
+    public void close() {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
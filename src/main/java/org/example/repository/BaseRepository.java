@@ -1,7 +1,149 @@
 package org.example.repository;
 
 import com.zaxxer.hikari.HikariDataSource;
+import org.example.metrics.QueryTimer;
+import org.example.util.ETagUtil;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 
 public class BaseRepository {
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final String UNIQUE_VIOLATION = "23505";
+    protected static final int BATCH_SIZE = 1_000;
+
     public static HikariDataSource dataSource;
+
+    protected static <T> List<T> findList(String query, String sql, RowMapper<T> mapper, Object... params)
+            throws SQLException {
+        try (var timer = QueryTimer.start(query);
+             var conn = dataSource.getConnection();
+             var stmt = conn.prepareStatement(sql)) {
+            bind(stmt, params);
+            var resultSet = stmt.executeQuery();
+            var entities = new ArrayList<T>();
+
+            while (resultSet.next()) {
+                entities.add(mapper.map(resultSet));
+            }
+
+            return entities;
+        }
+    }
+
+    protected static <T> Optional<T> findOne(String query, String sql, RowMapper<T> mapper, Object... params)
+            throws SQLException {
+        try (var timer = QueryTimer.start(query);
+             var conn = dataSource.getConnection();
+             var stmt = conn.prepareStatement(sql)) {
+            bind(stmt, params);
+            var resultSet = stmt.executeQuery();
+
+            if (resultSet.next()) {
+                return Optional.of(mapper.map(resultSet));
+            }
+
+            return Optional.empty();
+        }
+    }
+
+    // The handler needs the next cursor and the page ETag before any row is written, and both depend on every
+    // row, so the page is read to the end before the first row is handed over. It is not streamed from the
+    // result set: memory is bounded by PaginationUtil.MAX_PAGE_SIZE rows, what streaming saves is the
+    // intermediate DTO list and the serialized body, which the handler writes row by row
+    protected static <T> void streamPage(String query, String sql, RowMapper<T> mapper, RowMapper<String> tagMapper,
+                                         PageHandler<T> handler, Object... params) throws SQLException, IOException {
+        replayPage(findPage(query, sql, mapper, tagMapper, params), handler);
+    }
+
+    // a page read fully into memory, at most PaginationUtil.MAX_PAGE_SIZE rows, so that one query can be
+    // replayed to several handlers
+    protected record Page<T>(List<T> rows, Long lastId, String etag) {
+    }
+
+    protected static <T> Page<T> findPage(String query, String sql, RowMapper<T> mapper, RowMapper<String> tagMapper,
+                                          Object... params) throws SQLException {
+        try (var timer = QueryTimer.start(query);
+             var conn = dataSource.getConnection();
+             var stmt = conn.prepareStatement(sql)) {
+            bind(stmt, params);
+            var resultSet = stmt.executeQuery();
+            var rows = new ArrayList<T>();
+            Long lastId = null;
+            var pageHash = ETagUtil.emptyPageHash();
+
+            while (resultSet.next()) {
+                rows.add(mapper.map(resultSet));
+                lastId = resultSet.getLong("id");
+                pageHash = ETagUtil.hashPage(pageHash, tagMapper.map(resultSet));
+            }
+
+            return new Page<>(Collections.unmodifiableList(rows), lastId, ETagUtil.pageTag(pageHash));
+        }
+    }
+
+    protected static <T> void replayPage(Page<T> page, PageHandler<T> handler) throws IOException {
+        if (!handler.begin(page.rows().size(), page.lastId(), page.etag())) {
+            return;
+        }
+        for (var row : page.rows()) {
+            handler.accept(row);
+        }
+    }
+
+    protected static <T> void streamAll(String query, String sql, RowMapper<T> mapper, RowHandler<T> handler)
+            throws SQLException, IOException {
+        try (var timer = QueryTimer.start(query);
+             var conn = dataSource.getConnection()) {
+            // PostgreSQL only fetches in batches through a cursor inside a transaction,
+            // otherwise the whole result set is loaded into memory
+            conn.setAutoCommit(false);
+            try (var stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(STREAM_FETCH_SIZE);
+                var resultSet = stmt.executeQuery();
+
+                while (resultSet.next()) {
+                    handler.accept(mapper.map(resultSet));
+                }
+            }
+            conn.commit();
+        }
+    }
+
+    // IN lists are padded to the next power of two by repeating the last value, so a few statement texts
+    // cover every list size and keep hitting the driver's and the server's prepared statement caches
+    protected static Object[] inListParams(Collection<?> values) {
+        var size = values.size() <= 1 ? 1 : Integer.highestOneBit(values.size() - 1) << 1;
+        var params = Arrays.copyOf(values.toArray(), size);
+        Arrays.fill(params, values.size(), size, params[values.size() - 1]);
+        return params;
+    }
+
+    protected static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    // the same SQLState on H2 and PostgreSQL; a failed batch may carry it on a chained exception
+    public static boolean isUniqueViolation(SQLException e) {
+        for (var next = e; next != null; next = next.getNextException()) {
+            if (UNIQUE_VIOLATION.equals(next.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected static void bind(PreparedStatement stmt, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            stmt.setObject(i + 1, params[i]);
+        }
+    }
 }
@@ -1,154 +1,209 @@
 package org.example.repository;
 
+import org.example.cache.BookCache;
+import org.example.cache.GenreStats;
+import org.example.cache.ResponseCache;
+import org.example.component.SingleFlight;
 import org.example.entity.Book;
+import org.example.mapper.BookMapper;
+import org.example.metrics.QueryTimer;
+import org.example.search.SearchIndex;
+import org.example.util.ETagUtil;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public class BooksRepository extends BaseRepository {
+    private static final String SELECT_BOOKS = """
+            SELECT books.id, books.title, books.author, books.created_at, books.version,
+                   genres.id AS genre_id, genres.name AS genre_name, genres.created_at AS genre_created_at,
+                   genres.version AS genre_version
+            FROM books
+            INNER JOIN genres
+            ON books.genre_id = genres.id
+            """;
+
+    private static final String SELECT_BOOKS_PAGE = SELECT_BOOKS + """
+            ORDER BY books.id LIMIT ? OFFSET ?
+            """;
+
+    static final String SELECT_BOOKS_BY_AUTHOR_PAGE = SELECT_BOOKS + """
+            WHERE books.author = ?
+            ORDER BY books.id LIMIT ? OFFSET ?
+            """;
+
+    static final String SELECT_BOOKS_BY_GENRE_PAGE = SELECT_BOOKS + """
+            WHERE genres.name = ?
+            ORDER BY books.id LIMIT ? OFFSET ?
+            """;
+
+    private static final String SELECT_BOOKS_AFTER = SELECT_BOOKS + """
+            WHERE books.id > ?
+            ORDER BY books.id LIMIT ?
+            """;
+
+    static final String SELECT_BOOKS_BY_AUTHOR_AFTER = SELECT_BOOKS + """
+            WHERE books.author = ? AND books.id > ?
+            ORDER BY books.id LIMIT ?
+            """;
+
+    static final String SELECT_BOOKS_BY_GENRE_AFTER = SELECT_BOOKS + """
+            WHERE genres.name = ? AND books.id > ?
+            ORDER BY books.id LIMIT ?
+            """;
+
+    // concurrent requests for the same author or genre page share one query, keyed by statement and parameters
+    private static final SingleFlight<List<Object>, Page<Book>> FILTERED_PAGES =
+            new SingleFlight<>("BooksRepository.filteredPages");
+
+    // where a book is counted in GenreStats: its genre, and whether its review is counted there too
+    private record GenreLink(Long genreId, boolean reviewed) {
+    }
+
     public static List<Book> findEntities(int page, int rowsPerPage) throws SQLException {
-        var offset = page * rowsPerPage;
-        var sql = String.format("""
-                SELECT * FROM books
-                ORDER BY id LIMIT %d OFFSET %d
-                """, rowsPerPage, offset);
+        return findList("BooksRepository.findEntities",
+                SELECT_BOOKS_PAGE, BookMapper::toEntity, rowsPerPage, page * rowsPerPage);
+    }
 
-        try (var conn = dataSource.getConnection();
-             var stmt = conn.prepareStatement(sql)) {
-            var resultSet = stmt.executeQuery();
-            var books = new ArrayList<Book>();
-
-            while (resultSet.next()) {
-                var id = resultSet.getLong("id"); // вот эту часть кода тоже надо в маппер, тут ведь просто собирается объект
-                var title = resultSet.getString("title");
-                var author = resultSet.getString("author");
-                var genreId = resultSet.getLong("genre_id");
-                var createdAt = resultSet.getTimestamp("created_at");
-
-                var genre = GenresRepository.findById(genreId).orElseThrow();
-                var book = new Book(title, author, genre);
-                book.setId(id);
-                book.setCreatedAt(createdAt);
-                books.add(book);
-            }
+    public static List<Book> findEntitiesByAuthor(String authorName, int page, int rowsPerPage) throws SQLException {
+        return findFilteredPage("BooksRepository.findEntitiesByAuthor",
+                SELECT_BOOKS_BY_AUTHOR_PAGE, authorName, rowsPerPage, page * rowsPerPage).rows();
+    }
 
-            return books;
-        }
+    public static List<Book> findEntitiesByGenre(String genreName, int page, int rowsPerPage) throws SQLException {
+        return findFilteredPage("BooksRepository.findEntitiesByGenre",
+                SELECT_BOOKS_BY_GENRE_PAGE, genreName, rowsPerPage, page * rowsPerPage).rows();
     }
 
-    public static List<Book> findEntitiesByAuthor(String authorName, int page, int rowsPerPage) throws SQLException {
-        var offset = page * rowsPerPage;
-        var sql = String.format("""
-                SELECT * FROM books
-                WHERE author = '%s'
-                ORDER BY id LIMIT %d OFFSET %d
-                """, authorName, rowsPerPage, offset);
-
-        try (var conn = dataSource.getConnection();
-             var stmt = conn.prepareStatement(sql)) {
-            var resultSet = stmt.executeQuery();
-            var books = new ArrayList<Book>();
-
-            while (resultSet.next()) {
-                var id = resultSet.getLong("id");
-                var title = resultSet.getString("title");
-                var genreId = resultSet.getLong("genre_id");
-                var createdAt = resultSet.getTimestamp("created_at");
-
-                var genre = GenresRepository.findById(genreId).orElseThrow();
-                var book = new Book(title, authorName, genre);
-                book.setId(id);
-                book.setCreatedAt(createdAt);
-                books.add(book);
-            }
+    public static List<Book> findEntitiesAfter(Long afterId, int rowsPerPage) throws SQLException {
+        return findList("BooksRepository.findEntitiesAfter",
+                SELECT_BOOKS_AFTER, BookMapper::toEntity, afterId, rowsPerPage);
+    }
 
-            return books;
-        }
+    public static List<Book> findEntitiesByAuthorAfter(String authorName, Long afterId, int rowsPerPage)
+            throws SQLException {
+        return findFilteredPage("BooksRepository.findEntitiesByAuthorAfter",
+                SELECT_BOOKS_BY_AUTHOR_AFTER, authorName, afterId, rowsPerPage).rows();
     }
 
-    public static List<Book> findEntitiesByGenre(String genreName, int page, int rowsPerPage) throws SQLException {
-        var offset = page * rowsPerPage;
-        var sql = String.format("""
-                SELECT * FROM books
-                INNER JOIN genres
-                ON books.genre_id = genres.id
-                WHERE genres.name = '%s'
-                ORDER BY books.id LIMIT %d OFFSET %d
-                """, genreName, rowsPerPage, offset);
+    public static List<Book> findEntitiesByGenreAfter(String genreName, Long afterId, int rowsPerPage)
+            throws SQLException {
+        return findFilteredPage("BooksRepository.findEntitiesByGenreAfter",
+                SELECT_BOOKS_BY_GENRE_AFTER, genreName, afterId, rowsPerPage).rows();
+    }
 
-        try (var conn = dataSource.getConnection();
-             var stmt = conn.prepareStatement(sql)) {
-            var resultSet = stmt.executeQuery();
-            var books = new ArrayList<Book>();
-
-            while (resultSet.next()) {
-                var id = resultSet.getLong("id");
-                var title = resultSet.getString("title");
-                var author = resultSet.getString("author");
-                var genreId = resultSet.getLong("genre_id");
-                var createdAt = resultSet.getTimestamp("created_at");
-
-                var genre = GenresRepository.findById(genreId).orElseThrow();
-                var book = new Book(title, author, genre);
-                book.setId(id);
-                book.setCreatedAt(createdAt);
-                books.add(book);
-            }
+    public static void streamEntities(int page, int rowsPerPage, PageHandler<Book> handler)
+            throws SQLException, IOException {
+        streamPage("BooksRepository.streamEntities",
+                SELECT_BOOKS_PAGE, BookMapper::toEntity, BookMapper::toETag, handler, rowsPerPage, page * rowsPerPage);
+    }
+
+    public static void streamEntitiesByAuthor(String authorName, int page, int rowsPerPage,
+                                              PageHandler<Book> handler) throws SQLException, IOException {
+        replayPage(findFilteredPage("BooksRepository.streamEntitiesByAuthor",
+                SELECT_BOOKS_BY_AUTHOR_PAGE, authorName, rowsPerPage, page * rowsPerPage), handler);
+    }
+
+    public static void streamEntitiesByGenre(String genreName, int page, int rowsPerPage,
+                                             PageHandler<Book> handler) throws SQLException, IOException {
+        replayPage(findFilteredPage("BooksRepository.streamEntitiesByGenre",
+                SELECT_BOOKS_BY_GENRE_PAGE, genreName, rowsPerPage, page * rowsPerPage), handler);
+    }
+
+    public static void streamEntitiesAfter(Long afterId, int rowsPerPage, PageHandler<Book> handler)
+            throws SQLException, IOException {
+        streamPage("BooksRepository.streamEntitiesAfter",
+                SELECT_BOOKS_AFTER, BookMapper::toEntity, BookMapper::toETag, handler, afterId, rowsPerPage);
+    }
+
+    public static void streamEntitiesByAuthorAfter(String authorName, Long afterId, int rowsPerPage,
+                                                   PageHandler<Book> handler) throws SQLException, IOException {
+        replayPage(findFilteredPage("BooksRepository.streamEntitiesByAuthorAfter",
+                SELECT_BOOKS_BY_AUTHOR_AFTER, authorName, afterId, rowsPerPage), handler);
+    }
+
+    public static void streamEntitiesByGenreAfter(String genreName, Long afterId, int rowsPerPage,
+                                                  PageHandler<Book> handler) throws SQLException, IOException {
+        replayPage(findFilteredPage("BooksRepository.streamEntitiesByGenreAfter",
+                SELECT_BOOKS_BY_GENRE_AFTER, genreName, afterId, rowsPerPage), handler);
+    }
+
+    public static void streamAll(RowHandler<Book> handler) throws SQLException, IOException {
+        streamAll("BooksRepository.streamAll", SELECT_BOOKS + "ORDER BY books.id", BookMapper::toEntity, handler);
+    }
 
-            return books;
+    // only the columns the ETag depends on, so a conditional GET can be answered without loading the book
+    public static Optional<String> findETag(Long id) throws SQLException {
+        var cachedBook = BookCache.getIfPresent(id);
+        if (cachedBook.isPresent()) {
+            return cachedBook.map(ETagUtil::of);
         }
+
+        var sql = """
+                SELECT books.id, books.version, genres.version AS genre_version
+                FROM books
+                INNER JOIN genres
+                ON books.genre_id = genres.id
+                WHERE books.id = ?
+                """;
+        return findOne("BooksRepository.findETag", sql, BookMapper::toETag, id);
     }
 
     public static Optional<Book> findById(Long id) throws SQLException {
-        var sql = "SELECT * FROM books WHERE id = ?";
+        return BookCache.getById(id, BooksRepository::loadById);
+    }
 
-        try (var conn = dataSource.getConnection();
+    private static Optional<Book> loadById(Long id) throws SQLException {
+        var sql = SELECT_BOOKS + "WHERE books.id = ?";
+
+        try (var timer = QueryTimer.start("BooksRepository.findById");
+             var conn = dataSource.getConnection();
              var stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, id);
             var resultSet = stmt.executeQuery();
 
             if (resultSet.next()) {
-                var title = resultSet.getString("title");
-                var author = resultSet.getString("author");
-                var genreId = resultSet.getLong("genre_id");
-                var createdAt = resultSet.getTimestamp("created_at");
-
-                var genre = GenresRepository.findById(genreId).orElseThrow();
-                var book = new Book(title, author, genre);
-                book.setId(id);
-                book.setCreatedAt(createdAt);
-
-                return Optional.of(book);
+                return Optional.of(BookMapper.toEntity(resultSet));
             }
 
             return Optional.empty();
         }
     }
 
+    // a cached title only points to an id, the book is taken from the id cache and must still have the title
     public static Optional<Book> findByTitle(String bookTitle) throws SQLException {
-        var sql = "SELECT * FROM books WHERE title = ?";
+        var cachedId = BookCache.getIdByTitle(bookTitle);
+        if (cachedId.isPresent()) {
+            var book = findById(cachedId.get());
+            if (book.isPresent() && book.get().getTitle().equals(bookTitle)) {
+                return book;
+            }
+            BookCache.invalidateTitle(bookTitle);
+        }
+
+        var book = loadByTitle(bookTitle);
+        book.ifPresent(BookCache::putTitle);
+        return book;
+    }
+
+    private static Optional<Book> loadByTitle(String bookTitle) throws SQLException {
+        var sql = SELECT_BOOKS + "WHERE books.title = ?";
 
-        try (var conn = dataSource.getConnection();
+        try (var timer = QueryTimer.start("BooksRepository.findByTitle");
+             var conn = dataSource.getConnection();
              var stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, bookTitle);
             var resultSet = stmt.executeQuery();
 
             if (resultSet.next()) {
-                var id = resultSet.getLong("id");
-                var author = resultSet.getString("author");
-                var genreId = resultSet.getLong("genre_id");
-                var createdAt = resultSet.getTimestamp("created_at");
-
-                var genre = GenresRepository.findById(genreId).orElseThrow();
-                var book = new Book(bookTitle, author, genre);
-                book.setId(id);
-                book.setCreatedAt(createdAt);
-
-                return Optional.of(book);
+                return Optional.of(BookMapper.toEntity(resultSet));
             }
 
             return Optional.empty();
@@ -159,7 +214,8 @@ public class BooksRepository extends BaseRepository {
         String sql = "INSERT INTO books (title, author, genre_id, created_at) VALUES (?, ?, ?, ?)"; // это лучше в константу
         var datetime = new Timestamp(System.currentTimeMillis());
 
-        try (var conn = dataSource.getConnection();
+        try (var timer = QueryTimer.start("BooksRepository.save");
+             var conn = dataSource.getConnection();
              var preparedStatement = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             preparedStatement.setString(1, book.getTitle());
             preparedStatement.setString(2, book.getAuthor());
@@ -175,12 +231,67 @@ public class BooksRepository extends BaseRepository {
                 throw new SQLException("DB have not returned an id after saving an entity");
             }
         }
+        SearchIndex.putBook(book);
+        GenreStats.addBook(book.getGenre().getId());
+    }
+
+    public static Set<String> findExistingTitles(Collection<String> titles) throws SQLException {
+        if (titles.isEmpty()) {
+            return Set.of();
+        }
+
+        var params = inListParams(titles);
+        var sql = "SELECT title FROM books WHERE title IN (" + placeholders(params.length) + ")";
+        var existingTitles = findList("BooksRepository.findExistingTitles", sql,
+                resultSet -> resultSet.getString("title"), params);
+        return new HashSet<>(existingTitles);
+    }
+
+    // all books are inserted in one transaction, either every book gets its id or none is saved
+    public static void saveAll(List<Book> books) throws SQLException {
+        var sql = "INSERT INTO books (title, author, genre_id, created_at) VALUES (?, ?, ?, ?)";
+        var datetime = new Timestamp(System.currentTimeMillis());
+
+        try (var timer = QueryTimer.start("BooksRepository.saveAll");
+             var conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (var preparedStatement = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (int from = 0; from < books.size(); from += BATCH_SIZE) {
+                    var chunk = books.subList(from, Math.min(from + BATCH_SIZE, books.size()));
+                    for (var book : chunk) {
+                        preparedStatement.setString(1, book.getTitle());
+                        preparedStatement.setString(2, book.getAuthor());
+                        preparedStatement.setLong(3, book.getGenre().getId());
+                        preparedStatement.setTimestamp(4, datetime);
+                        preparedStatement.addBatch();
+                    }
+                    preparedStatement.executeBatch();
+
+                    var generatedKeys = preparedStatement.getGeneratedKeys();
+                    for (var book : chunk) {
+                        if (!generatedKeys.next()) {
+                            throw new SQLException("DB have not returned an id after saving an entity");
+                        }
+                        book.setId(generatedKeys.getLong(1));
+                        book.setCreatedAt(datetime);
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        books.forEach(SearchIndex::putBook);
+        books.forEach(book -> GenreStats.addBook(book.getGenre().getId()));
     }
 
     public static void update(Book book, Long id) throws SQLException {
-        String sql = "UPDATE books SET title = ?, author = ?, genre_id = ? WHERE id = ?";
+        var previousLink = findGenreLink(id);
+        String sql = "UPDATE books SET title = ?, author = ?, genre_id = ?, version = version + 1 WHERE id = ?";
 
-        try (var conn = dataSource.getConnection();
+        try (var timer = QueryTimer.start("BooksRepository.update");
+             var conn = dataSource.getConnection();
              var preparedStatement = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             preparedStatement.setString(1, book.getTitle());
             preparedStatement.setString(2, book.getAuthor());
@@ -195,24 +306,67 @@ public class BooksRepository extends BaseRepository {
                 throw new SQLException("DB have not returned an id after saving an entity");
             }
         }
+        BookCache.invalidate(id);
+        invalidateResponses(id);
+        SearchIndex.putBook(book);
+        previousLink.ifPresent(link -> GenreStats.moveBook(link.genreId(), book.getGenre().getId(), link.reviewed()));
     }
 
+    // the review goes with the book through ON DELETE CASCADE, so its genre loses both counts; reviews are
+    // not cached themselves, and with the book evicted the review can no longer be written through it
     public static void deleteById(Long id) throws SQLException {
+        var previousLink = findGenreLink(id);
         var sql = "DELETE FROM books WHERE id = ?";
 
-        try (var conn = dataSource.getConnection();
+        try (var timer = QueryTimer.start("BooksRepository.deleteById");
+             var conn = dataSource.getConnection();
              var stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, id);
             stmt.execute();
         }
+        BookCache.invalidate(id);
+        invalidateResponses(id);
+        SearchIndex.removeBook(id);
+        previousLink.ifPresent(link -> GenreStats.removeBook(link.genreId(), link.reviewed()));
     }
 
     public static void clear() throws SQLException {
         var sql = "DELETE FROM books";
 
-        try (var conn = dataSource.getConnection();
+        try (var timer = QueryTimer.start("BooksRepository.clear");
+             var conn = dataSource.getConnection();
              var stmt = conn.createStatement()) {
             stmt.execute(sql);
         }
+        BookCache.invalidateAll();
+        ResponseCache.BOOKS.invalidateAll();
+        ResponseCache.REVIEWS.invalidateAll();
+        SearchIndex.clear();
+        GenreStats.removeAllBooks();
+    }
+
+    // the list and the streaming variant of a query run the same statement and so share in-flight calls
+    private static Page<Book> findFilteredPage(String query, String sql, Object... params) throws SQLException {
+        List<Object> key = List.of(sql, List.of(params));
+        return FILTERED_PAGES.execute(key,
+                () -> findPage(query, sql, BookMapper::toEntity, BookMapper::toETag, params));
+    }
+
+    // a review response shows the title and author of its book and carries the book version in its ETag
+    private static void invalidateResponses(Long id) {
+        ResponseCache.BOOKS.invalidate(id);
+        ResponseCache.REVIEWS.invalidate(id);
+    }
+
+    private static Optional<GenreLink> findGenreLink(Long id) throws SQLException {
+        var sql = """
+                SELECT books.genre_id, reviews.book_id AS review_book_id
+                FROM books
+                LEFT JOIN reviews
+                ON reviews.book_id = books.id
+                WHERE books.id = ?
+                """;
+        return findOne("BooksRepository.findGenreLink", sql, resultSet -> new GenreLink(
+                resultSet.getLong("genre_id"), resultSet.getObject("review_book_id") != null), id);
     }
 }
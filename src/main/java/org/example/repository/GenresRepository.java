@@ -1,90 +1,146 @@
 package org.example.repository;
 
+import org.example.cache.BookCache;
+import org.example.cache.GenreCache;
+import org.example.cache.GenreStats;
+import org.example.cache.ResponseCache;
+import org.example.dto.GenreStatsDTO;
 import org.example.entity.Genre;
+import org.example.mapper.GenreMapper;
+import org.example.metrics.QueryTimer;
+import org.example.util.ETagUtil;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class GenresRepository extends BaseRepository { // тут замечания такие же как в другом репозитории
+    private static final String SELECT_GENRES_PAGE = """
+            SELECT * FROM genres
+            ORDER BY id LIMIT ? OFFSET ?
+            """;
+
+    private static final String SELECT_GENRES_AFTER = """
+            SELECT * FROM genres
+            WHERE id > ?
+            ORDER BY id LIMIT ?
+            """;
+
+    // reviews join books one-to-one, so counting non-null ids on both sides never double counts
+    private static final String SELECT_GENRE_STATS = """
+            SELECT genres.id, genres.name, COUNT(books.id) AS book_count, COUNT(reviews.book_id) AS review_count
+            FROM genres
+            LEFT JOIN books ON books.genre_id = genres.id
+            LEFT JOIN reviews ON reviews.book_id = books.id
+            GROUP BY genres.id, genres.name
+            """;
+
     public static List<Genre> findEntities(int page, int rowsPerPage) throws SQLException {
-        var offset = page * rowsPerPage;
-        var sql = String.format("""
-                SELECT * FROM genres
-                ORDER BY id LIMIT %d OFFSET %d
-                """, rowsPerPage, offset);
+        return findList("GenresRepository.findEntities",
+                SELECT_GENRES_PAGE, GenreMapper::toEntity, rowsPerPage, page * rowsPerPage);
+    }
 
-        try (var conn = dataSource.getConnection();
-             var stmt = conn.prepareStatement(sql)) {
-            var resultSet = stmt.executeQuery();
-            var genres = new ArrayList<Genre>();
-
-            while (resultSet.next()) {
-                var id = resultSet.getLong("id");
-                var name = resultSet.getString("name");
-                var createdAt = resultSet.getTimestamp("created_at");
-                var genre = new Genre(name);
-                genre.setId(id);
-                genre.setCreatedAt(createdAt);
-                genres.add(genre);
-            }
+    public static List<Genre> findEntitiesAfter(Long afterId, int rowsPerPage) throws SQLException {
+        return findList("GenresRepository.findEntitiesAfter",
+                SELECT_GENRES_AFTER, GenreMapper::toEntity, afterId, rowsPerPage);
+    }
 
-            return genres;
-        }
+    public static void streamEntities(int page, int rowsPerPage, PageHandler<Genre> handler)
+            throws SQLException, IOException {
+        streamPage("GenresRepository.streamEntities",
+                SELECT_GENRES_PAGE, GenreMapper::toEntity, GenreMapper::toETag, handler,
+                rowsPerPage, page * rowsPerPage);
     }
 
-    public static Optional<Genre> findById(Long id) throws SQLException {
-        var sql = "SELECT * FROM genres WHERE id = ?";
+    public static void streamEntitiesAfter(Long afterId, int rowsPerPage, PageHandler<Genre> handler)
+            throws SQLException, IOException {
+        streamPage("GenresRepository.streamEntitiesAfter",
+                SELECT_GENRES_AFTER, GenreMapper::toEntity, GenreMapper::toETag, handler, afterId, rowsPerPage);
+    }
 
-        try (var conn = dataSource.getConnection();
-             var stmt = conn.prepareStatement(sql)) {
-            stmt.setLong(1, id);
-            var resultSet = stmt.executeQuery();
+    public static List<GenreStatsDTO> findStats() throws SQLException {
+        return findList("GenresRepository.findStats", SELECT_GENRE_STATS, GenreMapper::toStatsDTO);
+    }
 
-            if (resultSet.next()) {
-                var name = resultSet.getString("name");
-                var createdAt = resultSet.getTimestamp("created_at");
-                var genre = new Genre(name);
-                genre.setId(id);
-                genre.setCreatedAt(createdAt);
+    public static Optional<String> findETag(Long id) throws SQLException {
+        var cachedGenre = GenreCache.getIfPresent(id);
+        if (cachedGenre.isPresent()) {
+            return cachedGenre.map(ETagUtil::of);
+        }
 
-                return Optional.of(genre);
-            }
+        var sql = "SELECT id, version FROM genres WHERE id = ?";
+        return findOne("GenresRepository.findETag", sql, GenreMapper::toETag, id);
+    }
 
-            return Optional.empty();
-        }
+    public static Optional<Genre> findById(Long id) throws SQLException {
+        var genre = GenreCache.getById(id, GenresRepository::loadById);
+        genre.ifPresent(GenreCache::putName);
+        return genre;
     }
 
-    public static Optional<Genre> findByName(String genreName) throws SQLException {
-        var sql = "SELECT * FROM genres WHERE name = ?";
+    private static Optional<Genre> loadById(Long id) throws SQLException {
+        var sql = "SELECT * FROM genres WHERE id = ?";
+        return findOne("GenresRepository.findById", sql, GenreMapper::toEntity, id);
+    }
 
-        try (var conn = dataSource.getConnection();
-             var stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, genreName);
-            var resultSet = stmt.executeQuery();
+    public static Optional<Genre> findByName(String genreName) throws SQLException {
+        var cachedId = GenreCache.getIdByName(genreName);
+        if (cachedId.isPresent()) {
+            var genre = findById(cachedId.get());
+            if (genre.isPresent() && genre.get().getName().equals(genreName)) {
+                return genre;
+            }
+            GenreCache.invalidate(genreName);
+        }
 
-            if (resultSet.next()) {
-                var id = resultSet.getLong("id");
-                var createdAt = resultSet.getTimestamp("created_at");
-                var genre = new Genre(genreName);
-                genre.setId(id);
-                genre.setCreatedAt(createdAt);
+        var sql = "SELECT * FROM genres WHERE name = ?";
+        var genre = findOne("GenresRepository.findByName", sql, GenreMapper::toEntity, genreName);
+        genre.ifPresent(GenreCache::putName);
+        return genre;
+    }
 
-                return Optional.of(genre);
+    public static Map<String, Genre> findByNames(Collection<String> genreNames) throws SQLException {
+        var genres = new HashMap<String, Genre>();
+        var uncachedNames = new ArrayList<String>();
+        for (var genreName : genreNames) {
+            // a known name is read through the id cache, which loads a genre evicted from it on its own
+            var cachedId = GenreCache.getIdByName(genreName);
+            var genre = cachedId.isPresent() ? findById(cachedId.get()) : Optional.<Genre>empty();
+            if (genre.isPresent() && genre.get().getName().equals(genreName)) {
+                genres.put(genreName, genre.get());
+            } else {
+                uncachedNames.add(genreName);
             }
+        }
 
-            return Optional.empty();
+        if (uncachedNames.isEmpty()) {
+            return genres;
+        }
+
+        var params = inListParams(uncachedNames);
+        var sql = "SELECT * FROM genres WHERE name IN (" + placeholders(params.length) + ")";
+        var foundGenres = findList("GenresRepository.findByNames", sql, GenreMapper::toEntity, params);
+        for (var genre : foundGenres) {
+            GenreCache.putName(genre);
+            genres.put(genre.getName(), genre);
         }
+
+        return genres;
     }
 
     public static void save(Genre genre) throws SQLException {
         String sql = "INSERT INTO genres (name, created_at) VALUES (?, ?)";
         var datetime = new Timestamp(System.currentTimeMillis());
 
-        try (var conn = dataSource.getConnection();
+        try (var timer = QueryTimer.start("GenresRepository.save");
+             var conn = dataSource.getConnection();
              var preparedStatement = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             preparedStatement.setString(1, genre.getName());
             preparedStatement.setTimestamp(2, datetime);
@@ -94,6 +150,8 @@ public class GenresRepository extends BaseRepository { // тут замечан
             if (generatedKeys.next()) {
                 genre.setId(generatedKeys.getLong(1));
                 genre.setCreatedAt(datetime);
+                GenreCache.invalidate(genre.getName());
+                GenreStats.putGenre(genre);
             } else {
                 throw new SQLException("DB have not returned an id after saving an entity");
             }
@@ -101,17 +159,25 @@ public class GenresRepository extends BaseRepository { // тут замечан
     }
 
     public static void update(Genre genre, Long id) throws SQLException {
-        String sql = "UPDATE genres SET name = ? WHERE id = ?";
+        String sql = "UPDATE genres SET name = ?, version = version + 1 WHERE id = ?";
 
-        try (var conn = dataSource.getConnection();
+        try (var timer = QueryTimer.start("GenresRepository.update");
+             var conn = dataSource.getConnection();
              var preparedStatement = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             preparedStatement.setString(1, genre.getName());
             preparedStatement.setLong(2, id);
             preparedStatement.executeUpdate();
+            GenreCache.invalidate(id);
+            // cached books and their responses carry the genre, its name and version; unlike invalidateAll,
+            // this waits for loads in flight, which may have read the old genre
+            BookCache.invalidateGenre(id);
+            ResponseCache.BOOKS.invalidateParent(id);
+            ResponseCache.GENRES.invalidate(id);
             var generatedKeys = preparedStatement.getGeneratedKeys();
 
             if (generatedKeys.next()) {
                 genre.setId(generatedKeys.getLong(1));
+                GenreStats.putGenre(genre);
             } else {
                 throw new SQLException("DB have not returned an id after saving an entity");
             }
@@ -121,19 +187,27 @@ public class GenresRepository extends BaseRepository { // тут замечан
     public static void deleteById(Long id) throws SQLException {
         var sql = "DELETE FROM genres WHERE id = ?";
 
-        try (var conn = dataSource.getConnection();
+        try (var timer = QueryTimer.start("GenresRepository.deleteById");
+             var conn = dataSource.getConnection();
              var stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, id);
             stmt.execute();
         }
+        GenreCache.invalidate(id);
+        ResponseCache.GENRES.invalidate(id);
+        GenreStats.removeGenre(id);
     }
 
     public static void clear() throws SQLException {
         var sql = "DELETE FROM genres";
 
-        try (var conn = dataSource.getConnection();
+        try (var timer = QueryTimer.start("GenresRepository.clear");
+             var conn = dataSource.getConnection();
              var stmt = conn.createStatement()) {
             stmt.execute(sql);
         }
+        GenreCache.invalidateAll();
+        ResponseCache.GENRES.invalidateAll();
+        GenreStats.clear();
     }
 }
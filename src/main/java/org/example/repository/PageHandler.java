@@ -0,0 +1,9 @@
+package org.example.repository;
+
+import java.io.IOException;
+
+public interface PageHandler<T> extends RowHandler<T> {
+    // called once before the first row; lastId is the id of the last row on the page, or null for an empty page.
+    // Returning false skips the rows, e.g. when the client already has the page with this etag
+    boolean begin(int rowCount, Long lastId, String etag) throws IOException;
+}
@@ -1,60 +1,90 @@
 package org.example.repository;
 
+import org.example.cache.GenreStats;
+import org.example.cache.ResponseCache;
 import org.example.entity.Review;
+import org.example.mapper.ReviewMapper;
+import org.example.metrics.QueryTimer;
+import org.example.search.SearchIndex;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 public class ReviewsRepository extends BaseRepository { // и тут
+    private static final String SELECT_REVIEWS = """
+            SELECT books.id, books.title, books.author, books.created_at, books.version,
+                   genres.id AS genre_id, genres.name AS genre_name, genres.created_at AS genre_created_at,
+                   genres.version AS genre_version,
+                   reviews.content, reviews.created_at AS review_created_at, reviews.version AS review_version
+            FROM reviews
+            INNER JOIN books
+            ON reviews.book_id = books.id
+            INNER JOIN genres
+            ON books.genre_id = genres.id
+            """;
+
+    private static final String SELECT_REVIEWS_PAGE = SELECT_REVIEWS + """
+            ORDER BY reviews.book_id LIMIT ? OFFSET ?
+            """;
+
+    private static final String SELECT_REVIEWS_AFTER = SELECT_REVIEWS + """
+            WHERE reviews.book_id > ?
+            ORDER BY reviews.book_id LIMIT ?
+            """;
+
     public static List<Review> findEntities(int page, int rowsPerPage) throws SQLException {
-        var offset = page * rowsPerPage;
-        var sql = String.format("""
-                SELECT * FROM reviews
-                ORDER BY book_id LIMIT %d OFFSET %d
-                """, rowsPerPage, offset);
+        return findList("ReviewsRepository.findEntities",
+                SELECT_REVIEWS_PAGE, ReviewMapper::toEntity, rowsPerPage, page * rowsPerPage);
+    }
 
-        try (var conn = dataSource.getConnection();
-             var stmt = conn.prepareStatement(sql)) {
-            var resultSet = stmt.executeQuery();
-            var reviews = new ArrayList<Review>();
-
-            while (resultSet.next()) {
-                var bookId = resultSet.getLong("book_id");
-                var content = resultSet.getString("content");
-                var createdAt = resultSet.getTimestamp("created_at");
-
-                var book = BooksRepository.findById(bookId).orElseThrow();
-                var review = new Review(content, book);
-                review.setId(bookId);
-                review.setCreatedAt(createdAt);
-                reviews.add(review);
-            }
+    public static List<Review> findEntitiesAfter(Long afterId, int rowsPerPage) throws SQLException {
+        return findList("ReviewsRepository.findEntitiesAfter",
+                SELECT_REVIEWS_AFTER, ReviewMapper::toEntity, afterId, rowsPerPage);
+    }
 
-            return reviews;
-        }
+    public static void streamEntities(int page, int rowsPerPage, PageHandler<Review> handler)
+            throws SQLException, IOException {
+        streamPage("ReviewsRepository.streamEntities",
+                SELECT_REVIEWS_PAGE, ReviewMapper::toEntity, ReviewMapper::toETag, handler,
+                rowsPerPage, page * rowsPerPage);
+    }
+
+    public static void streamEntitiesAfter(Long afterId, int rowsPerPage, PageHandler<Review> handler)
+            throws SQLException, IOException {
+        streamPage("ReviewsRepository.streamEntitiesAfter",
+                SELECT_REVIEWS_AFTER, ReviewMapper::toEntity, ReviewMapper::toETag, handler, afterId, rowsPerPage);
+    }
+
+    public static void streamAll(RowHandler<Review> handler) throws SQLException, IOException {
+        streamAll("ReviewsRepository.streamAll", SELECT_REVIEWS + "ORDER BY reviews.book_id", ReviewMapper::toEntity,
+                handler);
+    }
+
+    public static Optional<String> findETag(Long id) throws SQLException {
+        var sql = """
+                SELECT reviews.book_id AS id, reviews.version AS review_version, books.version
+                FROM reviews
+                INNER JOIN books
+                ON reviews.book_id = books.id
+                WHERE reviews.book_id = ?
+                """;
+        return findOne("ReviewsRepository.findETag", sql, ReviewMapper::toETag, id);
     }
 
     public static Optional<Review> findById(Long id) throws SQLException {
-        var sql = "SELECT * FROM reviews WHERE book_id = ?";
+        var sql = SELECT_REVIEWS + "WHERE reviews.book_id = ?";
 
-        try (var conn = dataSource.getConnection();
+        try (var timer = QueryTimer.start("ReviewsRepository.findById");
+             var conn = dataSource.getConnection();
              var stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, id);
             var resultSet = stmt.executeQuery();
 
             if (resultSet.next()) {
-                var content = resultSet.getString("content");
-                var createdAt = resultSet.getTimestamp("created_at");
-
-                var book = BooksRepository.findById(id).orElseThrow();
-                var review = new Review(content, book);
-                review.setId(id);
-                review.setCreatedAt(createdAt);
-
-                return Optional.of(review);
+                return Optional.of(ReviewMapper.toEntity(resultSet));
             }
 
             return Optional.empty();
@@ -65,7 +95,8 @@ public class ReviewsRepository extends BaseRepository { // и тут
         String sql = "INSERT INTO reviews (book_id, content, created_at) VALUES (?, ?, ?)";
         var datetime = new Timestamp(System.currentTimeMillis());
 
-        try (var conn = dataSource.getConnection();
+        try (var timer = QueryTimer.start("ReviewsRepository.save");
+             var conn = dataSource.getConnection();
              var preparedStatement = conn.prepareStatement(sql)) {
             preparedStatement.setLong(1, review.getBook().getId());
             preparedStatement.setString(2, review.getContent());
@@ -75,28 +106,83 @@ public class ReviewsRepository extends BaseRepository { // и тут
             review.setId(review.getBook().getId());
             review.setCreatedAt(datetime);
         }
+        SearchIndex.putReview(review.getId(), review.getContent());
+        GenreStats.addReview(review.getBook().getGenre().getId());
+    }
+
+    public static void saveAll(List<Review> reviews) throws SQLException {
+        String sql = "INSERT INTO reviews (book_id, content, created_at) VALUES (?, ?, ?)";
+        var datetime = new Timestamp(System.currentTimeMillis());
+
+        try (var timer = QueryTimer.start("ReviewsRepository.saveAll");
+             var conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (var preparedStatement = conn.prepareStatement(sql)) {
+                for (int i = 0; i < reviews.size(); i++) {
+                    var review = reviews.get(i);
+                    preparedStatement.setLong(1, review.getBook().getId());
+                    preparedStatement.setString(2, review.getContent());
+                    preparedStatement.setTimestamp(3, datetime);
+                    preparedStatement.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0 || i == reviews.size() - 1) {
+                        preparedStatement.executeBatch();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+            for (var review : reviews) {
+                review.setId(review.getBook().getId());
+                review.setCreatedAt(datetime);
+                SearchIndex.putReview(review.getId(), review.getContent());
+                GenreStats.addReview(review.getBook().getGenre().getId());
+            }
+        }
     }
 
     public static void update(Review review, Long id) throws SQLException {
-        String sql = "UPDATE reviews SET content = ? WHERE book_id = ?";
+        String sql = "UPDATE reviews SET content = ?, version = version + 1 WHERE book_id = ?";
+        int updatedRows;
 
-        try (var conn = dataSource.getConnection();
+        try (var timer = QueryTimer.start("ReviewsRepository.update");
+             var conn = dataSource.getConnection();
              var preparedStatement = conn.prepareStatement(sql)) {
             preparedStatement.setString(1, review.getContent());
             preparedStatement.setLong(2, id);
-            preparedStatement.executeUpdate();
+            updatedRows = preparedStatement.executeUpdate();
 
             review.setId(review.getBook().getId());
         }
+        // a book without a review has nothing to update, its text must not become searchable
+        if (updatedRows > 0) {
+            ResponseCache.REVIEWS.invalidate(id);
+            SearchIndex.putReview(id, review.getContent());
+        }
     }
 
     public static void deleteById(Long id) throws SQLException {
+        var genreSql = """
+                SELECT books.genre_id
+                FROM reviews
+                INNER JOIN books
+                ON reviews.book_id = books.id
+                WHERE reviews.book_id = ?
+                """;
+        var genreId = findOne("ReviewsRepository.findGenreId", genreSql,
+                resultSet -> resultSet.getLong("genre_id"), id);
         var sql = "DELETE FROM reviews WHERE book_id = ?";
 
-        try (var conn = dataSource.getConnection();
+        try (var timer = QueryTimer.start("ReviewsRepository.deleteById");
+             var conn = dataSource.getConnection();
              var stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, id);
             stmt.execute();
         }
+        ResponseCache.REVIEWS.invalidate(id);
+        SearchIndex.removeReview(id);
+        genreId.ifPresent(GenreStats::removeReview);
     }
 }
@@ -0,0 +1,7 @@
+package org.example.repository;
+
+import java.io.IOException;
+
+public interface RowHandler<T> {
+    void accept(T entity) throws IOException;
+}
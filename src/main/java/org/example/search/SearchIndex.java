@@ -0,0 +1,202 @@
+package org.example.search;
+
+import org.example.dto.SearchResultDTO;
+import org.example.entity.Book;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// In-memory inverted index over book titles, authors and review content, one document per book.
+// Repositories keep it in sync on every write, so searches never touch the database.
+public class SearchIndex {
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int REVIEW_WEIGHT = 1;
+    // a term that only starts with the query token counts less than the whole word
+    private static final double PREFIX_MATCH_FACTOR = 0.5;
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final ReadWriteLock LOCK = new ReentrantReadWriteLock();
+    // term -> book id -> weighted number of occurrences in the title, author and review;
+    // sorted so that all terms starting with a prefix are one sub map
+    private static final NavigableMap<String, Map<Long, Integer>> POSTINGS = new TreeMap<>();
+    private static final Map<Long, Document> DOCUMENTS = new HashMap<>();
+
+    private record Document(String title, String author, String review, Map<String, Integer> terms) {
+    }
+
+    public static void putBook(Book book) {
+        LOCK.writeLock().lock();
+        try {
+            var document = DOCUMENTS.get(book.getId());
+            var review = document == null ? null : document.review();
+            replace(book.getId(), book.getTitle(), book.getAuthor(), review);
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    public static void putReview(Long bookId, String content) {
+        LOCK.writeLock().lock();
+        try {
+            var document = DOCUMENTS.get(bookId);
+            if (document != null) {
+                replace(bookId, document.title(), document.author(), content);
+            }
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    public static void removeReview(Long bookId) {
+        putReview(bookId, null);
+    }
+
+    public static void removeBook(Long id) {
+        LOCK.writeLock().lock();
+        try {
+            unindex(id, DOCUMENTS.remove(id));
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    public static void clear() {
+        LOCK.writeLock().lock();
+        try {
+            POSTINGS.clear();
+            DOCUMENTS.clear();
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    public static int size() {
+        LOCK.readLock().lock();
+        try {
+            return DOCUMENTS.size();
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    // Every query token has to match a term of the book, either whole or as its prefix.
+    // A book scores the sum over the tokens of its best matching term, weighted by field and rarity
+    public static List<SearchResultDTO> search(String query, int limit) {
+        var tokens = tokenize(query).stream().distinct().toList();
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        LOCK.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (var token : tokens) {
+                var tokenScores = scoreToken(token);
+                if (scores != null) {
+                    tokenScores.keySet().retainAll(scores.keySet());
+                    scores.forEach((id, score) -> tokenScores.computeIfPresent(id, (key, value) -> value + score));
+                }
+                scores = tokenScores;
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            return topResults(scores, limit);
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    // case-folded words with diacritics removed, so "Émile" is found by "emile"
+    public static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        var decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        var normalized = DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        return Arrays.stream(TOKEN_SEPARATOR.split(normalized))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private static Map<Long, Double> scoreToken(String token) {
+        var tokenScores = new HashMap<Long, Double>();
+        var matchingTerms = POSTINGS.subMap(token, true, token + Character.MAX_VALUE, true);
+        for (var term : matchingTerms.entrySet()) {
+            var postings = term.getValue();
+            var idf = Math.log(1 + (double) DOCUMENTS.size() / postings.size());
+            var factor = term.getKey().equals(token) ? 1 : PREFIX_MATCH_FACTOR;
+            for (var posting : postings.entrySet()) {
+                tokenScores.merge(posting.getKey(), posting.getValue() * idf * factor, Math::max);
+            }
+        }
+        return tokenScores;
+    }
+
+    private static List<SearchResultDTO> topResults(Map<Long, Double> scores, int limit) {
+        Comparator<Map.Entry<Long, Double>> byRank = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        // a min-heap of the best `limit` books, cheaper than sorting every match of a short prefix
+        var top = new PriorityQueue<>(byRank);
+        for (var entry : scores.entrySet()) {
+            top.add(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        var results = new ArrayList<SearchResultDTO>(top.size());
+        while (!top.isEmpty()) {
+            var entry = top.poll();
+            var document = DOCUMENTS.get(entry.getKey());
+            var result = new SearchResultDTO();
+            result.setId(entry.getKey());
+            result.setTitle(document.title());
+            result.setAuthor(document.author());
+            result.setScore(entry.getValue());
+            results.add(0, result);
+        }
+        return results;
+    }
+
+    private static void replace(Long id, String title, String author, String review) {
+        unindex(id, DOCUMENTS.get(id));
+
+        var terms = new HashMap<String, Integer>();
+        tokenize(title).forEach(term -> terms.merge(term, TITLE_WEIGHT, Integer::sum));
+        tokenize(author).forEach(term -> terms.merge(term, AUTHOR_WEIGHT, Integer::sum));
+        tokenize(review).forEach(term -> terms.merge(term, REVIEW_WEIGHT, Integer::sum));
+
+        terms.forEach((term, count) -> POSTINGS.computeIfAbsent(term, key -> new HashMap<>()).put(id, count));
+        DOCUMENTS.put(id, new Document(title, author, review, terms));
+    }
+
+    private static void unindex(Long id, Document document) {
+        if (document == null) {
+            return;
+        }
+        for (var term : document.terms().keySet()) {
+            var postings = POSTINGS.get(term);
+            postings.remove(id);
+            if (postings.isEmpty()) {
+                POSTINGS.remove(term);
+            }
+        }
+    }
+}
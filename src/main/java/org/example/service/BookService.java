@@ -1,27 +1,49 @@
 package org.example.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+import org.example.component.BookImporter;
+import org.example.dto.BookBatchResultDTO;
 import org.example.dto.BookDTO;
+import org.example.dto.BookImportDTO;
+import org.example.dto.ImportResultDTO;
+import org.example.cache.ResponseCache;
+import org.example.cache.ResponseCache.CachedResponse;
 import org.example.entity.Book;
 import org.example.mapper.BookMapper;
+import org.example.repository.BaseRepository;
 import org.example.repository.BooksRepository;
 import org.example.repository.GenresRepository;
+import org.example.util.DtoJsonWriters;
+import org.example.util.ETagUtil;
+import org.example.util.JsonBuffer;
+import org.example.util.NdjsonWriter;
+import org.example.util.PageWriter;
+import org.example.util.Route;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
 
-import static org.example.util.RequestUtil.getId;
+import static org.example.util.ETagUtil.IF_NONE_MATCH_HEADER;
+import static org.example.util.ETagUtil.isNotModified;
+import static org.example.util.ETagUtil.sendNotModified;
+import static org.example.util.PaginationUtil.decodeCursor;
+import static org.example.util.PaginationUtil.getPageSize;
 
 public class BookService {
-    private static final int ROWS_PER_PAGE = 10;
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<List<BookDTO>> BOOK_DTO_LIST = new TypeReference<>() { };
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int MAX_SAVE_ATTEMPTS = 3;
 
     public static void showBooks(HttpServletRequest request,
                                  HttpServletResponse response)
@@ -33,39 +55,89 @@ public class BookService {
         String searchAuthor = request.getParameter("author"); //  в константу
         String searchGenre = request.getParameter("genre");
 
-        List<Book> books;
+        int rowsPerPage;
+        Long afterId;
+        try {
+            rowsPerPage = getPageSize(request);
+            String after = request.getParameter("after");
+            afterId = after == null ? null : decodeCursor(after);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        var pageWriter = new PageWriter<Book>(request, response, rowsPerPage, BookMapper::toDTO,
+                DtoJsonWriters::writeBook);
         try {
             if (searchAuthor != null) {
-                books = BooksRepository.findEntitiesByAuthor(searchAuthor, normalizedPage - 1, ROWS_PER_PAGE);
+                if (afterId == null) {
+                    BooksRepository.streamEntitiesByAuthor(searchAuthor, normalizedPage - 1, rowsPerPage,
+                            pageWriter);
+                } else {
+                    BooksRepository.streamEntitiesByAuthorAfter(searchAuthor, afterId, rowsPerPage, pageWriter);
+                }
             } else if (searchGenre != null) {
-                books = BooksRepository.findEntitiesByGenre(searchGenre, normalizedPage - 1, ROWS_PER_PAGE);
+                if (afterId == null) {
+                    BooksRepository.streamEntitiesByGenre(searchGenre, normalizedPage - 1, rowsPerPage,
+                            pageWriter);
+                } else {
+                    BooksRepository.streamEntitiesByGenreAfter(searchGenre, afterId, rowsPerPage, pageWriter);
+                }
             } else {
-                books = BooksRepository.findEntities(normalizedPage - 1, ROWS_PER_PAGE);
+                if (afterId == null) {
+                    BooksRepository.streamEntities(normalizedPage - 1, rowsPerPage, pageWriter);
+                } else {
+                    BooksRepository.streamEntitiesAfter(afterId, rowsPerPage, pageWriter);
+                }
             }
         } catch (SQLException e) {
-            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+            return;
+        }
+
+        pageWriter.finish();
+    }
+
+    public static void exportBooks(HttpServletRequest request,
+                                   HttpServletResponse response)
+            throws IOException, ServletException {
+
+        var ndjsonWriter = new NdjsonWriter<Book>(response, BookMapper::toDTO, DtoJsonWriters::writeBook);
+        try {
+            BooksRepository.streamAll(ndjsonWriter);
+        } catch (SQLException e) {
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
             return;
         }
 
-        List<BookDTO> bookDTOS = new ArrayList<>(books).stream().map(BookMapper::toDTO).toList();
-        String resultJsonString = OBJECT_MAPPER.writeValueAsString(bookDTOS);
-        PrintWriter out = response.getWriter();
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-        out.print(resultJsonString);
-        out.flush();
+        ndjsonWriter.finish();
     }
 
     public static void showBook(HttpServletRequest request,
                                 HttpServletResponse response)
             throws IOException, ServletException {
 
-        String id = getId(request);
-        Long normalizedId = Long.parseLong(Objects.requireNonNull(id));
+        Long normalizedId = Route.of(request).getId();
 
-        Book book;
+        CachedResponse cachedResponse;
         try {
-            book = BooksRepository.findById(normalizedId)
+            // revalidation only reads the version columns, the entity is loaded only when it has changed
+            if (request.getHeader(IF_NONE_MATCH_HEADER) != null) {
+                var cachedETag = ResponseCache.BOOKS.getETag(normalizedId);
+                var etag = cachedETag.isPresent() ? cachedETag.get() : BooksRepository.findETag(normalizedId)
+                        .orElseThrow(() -> new RuntimeException("Book not found"));
+                if (isNotModified(request, etag)) {
+                    sendNotModified(response, etag);
+                    return;
+                }
+            }
+            cachedResponse = ResponseCache.BOOKS
+                    .get(normalizedId, BooksRepository::findById, BookMapper::toDTO,
+                            DtoJsonWriters::writeBook, ETagUtil::of, book -> book.getGenre().getId())
                     .orElseThrow(() -> new RuntimeException("Book not found"));
         } catch (SQLException e) {
             response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
@@ -75,13 +147,7 @@ public class BookService {
             return;
         }
 
-        var bookDTO = BookMapper.toDTO(book);
-        String resultJsonString = OBJECT_MAPPER.writeValueAsString(bookDTO);
-        PrintWriter out = response.getWriter();
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-        out.print(resultJsonString);
-        out.flush();
+        ResponseCache.write(response, cachedResponse);
     }
 
 
@@ -108,22 +174,158 @@ public class BookService {
         }
 
         var bookDTO = BookMapper.toDTO(book);
-        String resultJsonString = OBJECT_MAPPER.writeValueAsString(bookDTO);
-        PrintWriter out = response.getWriter();
         response.setStatus(HttpServletResponse.SC_CREATED);
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-        out.print(resultJsonString);
-        out.flush();
+        JsonBuffer.write(response, bookDTO, DtoJsonWriters::writeBook);
+
+    }
+
+    public static void createBooks(HttpServletRequest request,
+                                   HttpServletResponse response)
+            throws IOException, ServletException {
+
+        List<BookDTO> bookDTOs;
+        try {
+            bookDTOs = OBJECT_MAPPER.readValue(request.getInputStream(), BOOK_DTO_LIST);
+        } catch (JsonProcessingException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        if (bookDTOs == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        if (bookDTOs.size() > MAX_BATCH_SIZE) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+
+        var results = new ArrayList<BookBatchResultDTO>(bookDTOs.size());
+        try {
+            var genreNames = new HashSet<String>();
+            var titles = new HashSet<String>();
+            for (var bookDTO : bookDTOs) {
+                if (isValid(bookDTO)) {
+                    genreNames.add(bookDTO.getGenreName());
+                    titles.add(bookDTO.getTitle());
+                }
+            }
+            var genres = GenresRepository.findByNames(genreNames);
+            // titles taken in the database or earlier in the same batch
+            var takenTitles = new HashSet<>(BooksRepository.findExistingTitles(titles));
+
+            var books = new ArrayList<Book>();
+            var createdResults = new ArrayList<BookBatchResultDTO>();
+            for (var bookDTO : bookDTOs) {
+                var result = new BookBatchResultDTO();
+                results.add(result);
+
+                if (!isValid(bookDTO)) {
+                    result.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                    result.setError("Title, author and genreName are required");
+                } else if (!genres.containsKey(bookDTO.getGenreName())) {
+                    result.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                    result.setError("Genre not found");
+                } else if (!takenTitles.add(bookDTO.getTitle())) {
+                    result.setStatus(HttpServletResponse.SC_CONFLICT);
+                    result.setError("Book with this title already exists");
+                } else {
+                    var genre = genres.get(bookDTO.getGenreName());
+                    books.add(new Book(bookDTO.getTitle(), bookDTO.getAuthor(), genre));
+                    createdResults.add(result);
+                }
+            }
+
+            saveAllSkippingTakenTitles(books, createdResults);
+            for (int i = 0; i < books.size(); i++) {
+                createdResults.get(i).setStatus(HttpServletResponse.SC_CREATED);
+                createdResults.get(i).setId(books.get(i).getId());
+            }
+        } catch (SQLException e) {
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            return;
+        }
+
+        JsonBuffer.write(response, results, DtoJsonWriters::writeBookBatchResults);
+    }
+
+    // A title saved by another request after findExistingTitles fails the batch, which is rolled back as a
+    // whole; the titles are checked again, their books answered with 409 and the rest saved once more
+    private static void saveAllSkippingTakenTitles(List<Book> books, List<BookBatchResultDTO> createdResults)
+            throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                BooksRepository.saveAll(books);
+                return;
+            } catch (SQLException e) {
+                if (!BaseRepository.isUniqueViolation(e) || attempt == MAX_SAVE_ATTEMPTS) {
+                    throw e;
+                }
+                var titles = books.stream().map(Book::getTitle).toList();
+                var takenTitles = BooksRepository.findExistingTitles(titles);
+                if (takenTitles.isEmpty()) {
+                    throw e;
+                }
+                for (int i = books.size() - 1; i >= 0; i--) {
+                    if (takenTitles.contains(books.get(i).getTitle())) {
+                        books.remove(i);
+                        var result = createdResults.remove(i);
+                        result.setStatus(HttpServletResponse.SC_CONFLICT);
+                        result.setError("Book with this title already exists");
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isValid(BookDTO bookDTO) {
+        return bookDTO != null
+                && StringUtils.isNotBlank(bookDTO.getTitle())
+                && StringUtils.isNotBlank(bookDTO.getAuthor())
+                && StringUtils.isNotBlank(bookDTO.getGenreName());
+    }
+
+    public static void importBooks(HttpServletRequest request,
+                                   HttpServletResponse response)
+            throws IOException, ServletException {
+
+        String contentType = StringUtils.defaultString(request.getContentType());
+
+        MappingIterator<BookImportDTO> rows;
+        try {
+            if (contentType.startsWith("text/csv")) {
+                rows = BookImporter.readCsv(request.getInputStream());
+            } else if (contentType.startsWith("application/x-ndjson")) {
+                rows = BookImporter.readNdjson(request.getInputStream());
+            } else {
+                response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
+                return;
+            }
+        } catch (JsonProcessingException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        ImportResultDTO result;
+        try (rows) {
+            result = BookImporter.importBooks(rows);
+        } catch (SQLException e) {
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            return;
+        } catch (RuntimeException e) {
+            // a malformed row, the chunks before it are already imported
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
 
+        JsonBuffer.write(response, result, DtoJsonWriters::writeImportResult);
     }
 
     public static void updateBook(HttpServletRequest request,
                                   HttpServletResponse response)
             throws IOException, ServletException {
 
-        String id = getId(request);
-        Long normalizedId = Long.parseLong(Objects.requireNonNull(id));
+        Long normalizedId = Route.of(request).getId();
 
         String title = request.getParameter("title");
         String author = request.getParameter("author");
@@ -141,20 +343,14 @@ public class BookService {
         }
 
         var bookDTO = BookMapper.toDTO(book);
-        String resultJsonString = OBJECT_MAPPER.writeValueAsString(bookDTO);
-        PrintWriter out = response.getWriter();
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-        out.print(resultJsonString);
-        out.flush();
+        JsonBuffer.write(response, bookDTO, DtoJsonWriters::writeBook);
     }
 
     public static void destroyBook(HttpServletRequest request,
                                    HttpServletResponse response)
             throws IOException, ServletException {
 
-        String id = getId(request);
-        Long normalizedId = Long.parseLong(Objects.requireNonNull(id));
+        Long normalizedId = Route.of(request).getId();
 
         try {
             BooksRepository.deleteById(normalizedId);
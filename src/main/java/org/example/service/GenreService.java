@@ -1,27 +1,30 @@
 package org.example.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.example.dto.GenreDTO;
+import org.example.cache.GenreStats;
+import org.example.cache.ResponseCache;
+import org.example.cache.ResponseCache.CachedResponse;
 import org.example.entity.Genre;
 import org.example.mapper.GenreMapper;
 import org.example.repository.GenresRepository;
+import org.example.util.DtoJsonWriters;
+import org.example.util.ETagUtil;
+import org.example.util.JsonBuffer;
+import org.example.util.PageWriter;
+import org.example.util.Route;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
 
-import static org.example.util.RequestUtil.getId;
+import static org.example.util.ETagUtil.IF_NONE_MATCH_HEADER;
+import static org.example.util.ETagUtil.isNotModified;
+import static org.example.util.ETagUtil.sendNotModified;
+import static org.example.util.PaginationUtil.decodeCursor;
+import static org.example.util.PaginationUtil.getPageSize;
 
 public class GenreService {
-    private static final int ROWS_PER_PAGE = 10;
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-
     public static void showGenres(HttpServletRequest request,
                                   HttpServletResponse response)
             throws IOException, ServletException {
@@ -29,35 +32,55 @@ public class GenreService {
         String currentPage = request.getParameter("page");
         int normalizedPage = currentPage == null ? 1 : Integer.parseInt(currentPage);
 
-        List<Genre> genres;
+        int rowsPerPage;
+        Long afterId;
+        try {
+            rowsPerPage = getPageSize(request);
+            String after = request.getParameter("after");
+            afterId = after == null ? null : decodeCursor(after);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        var pageWriter = new PageWriter<Genre>(request, response, rowsPerPage, GenreMapper::toDTO,
+                DtoJsonWriters::writeGenre);
         try {
-            genres = GenresRepository.findEntities(normalizedPage - 1, ROWS_PER_PAGE);
+            if (afterId == null) {
+                GenresRepository.streamEntities(normalizedPage - 1, rowsPerPage, pageWriter);
+            } else {
+                GenresRepository.streamEntitiesAfter(afterId, rowsPerPage, pageWriter);
+            }
         } catch (SQLException e) {
-            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
             return;
         }
 
-        List<GenreDTO> genreDTOS = new ArrayList<>(genres).stream()
-                .map(GenreMapper::toDTO)
-                .toList();
-        String resultJsonString = OBJECT_MAPPER.writeValueAsString(genreDTOS);
-        PrintWriter out = response.getWriter();
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-        out.print(resultJsonString);
-        out.flush();
+        pageWriter.finish();
     }
 
     public static void showGenre(HttpServletRequest request,
                                  HttpServletResponse response)
             throws IOException, ServletException {
 
-        String id = getId(request);
-        Long normalizedId = Long.parseLong(Objects.requireNonNull(id));
+        Long normalizedId = Route.of(request).getId();
 
-        Genre genre;
+        CachedResponse cachedResponse;
         try {
-            genre = GenresRepository.findById(normalizedId)
+            if (request.getHeader(IF_NONE_MATCH_HEADER) != null) {
+                var cachedETag = ResponseCache.GENRES.getETag(normalizedId);
+                var etag = cachedETag.isPresent() ? cachedETag.get() : GenresRepository.findETag(normalizedId)
+                        .orElseThrow(() -> new RuntimeException("Genre not found"));
+                if (isNotModified(request, etag)) {
+                    sendNotModified(response, etag);
+                    return;
+                }
+            }
+            cachedResponse = ResponseCache.GENRES
+                    .get(normalizedId, GenresRepository::findById, GenreMapper::toDTO,
+                            DtoJsonWriters::writeGenre, ETagUtil::of)
                     .orElseThrow(() -> new RuntimeException("Genre not found"));
         } catch (SQLException e) {
             response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
@@ -67,13 +90,29 @@ public class GenreService {
             return;
         }
 
-        var genreDTO = GenreMapper.toDTO(genre);
-        String resultJsonString = OBJECT_MAPPER.writeValueAsString(genreDTO);
-        PrintWriter out = response.getWriter();
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-        out.print(resultJsonString);
-        out.flush();
+        ResponseCache.write(response, cachedResponse);
+    }
+
+    // answered from the in-memory counters, no query runs
+    public static void showGenresStats(HttpServletRequest request,
+                                       HttpServletResponse response)
+            throws IOException, ServletException {
+
+        JsonBuffer.write(response, GenreStats.getAll(), DtoJsonWriters::writeGenresStats);
+    }
+
+    public static void showGenreStats(HttpServletRequest request,
+                                      HttpServletResponse response)
+            throws IOException, ServletException {
+
+        Long normalizedId = Route.of(request).getId();
+        var genreStats = GenreStats.get(normalizedId);
+        if (genreStats.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        JsonBuffer.write(response, genreStats.get(), DtoJsonWriters::writeGenreStats);
     }
 
     public static void createGenre(HttpServletRequest request,
@@ -91,21 +130,15 @@ public class GenreService {
         }
 
         var genreDTO = GenreMapper.toDTO(genre);
-        String resultJsonString = OBJECT_MAPPER.writeValueAsString(genreDTO);
-        PrintWriter out = response.getWriter();
         response.setStatus(HttpServletResponse.SC_CREATED);
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-        out.print(resultJsonString);
-        out.flush();
+        JsonBuffer.write(response, genreDTO, DtoJsonWriters::writeGenre);
     }
 
     public static void updateGenre(HttpServletRequest request,
                                    HttpServletResponse response)
             throws IOException, ServletException {
 
-        String id = getId(request);
-        Long normalizedId = Long.parseLong(Objects.requireNonNull(id));
+        Long normalizedId = Route.of(request).getId();
 
         String name = request.getParameter("name");
         Genre genre = new Genre(name);
@@ -118,12 +151,7 @@ public class GenreService {
         }
 
         var genreDTO = GenreMapper.toDTO(genre);
-        String resultJsonString = OBJECT_MAPPER.writeValueAsString(genreDTO);
-        PrintWriter out = response.getWriter();
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-        out.print(resultJsonString);
-        out.flush();
+        JsonBuffer.write(response, genreDTO, DtoJsonWriters::writeGenre);
 
     }
 
@@ -131,8 +159,7 @@ public class GenreService {
                                     HttpServletResponse response)
             throws IOException, ServletException {
 
-        String id = getId(request);
-        Long normalizedId = Long.parseLong(Objects.requireNonNull(id));
+        Long normalizedId = Route.of(request).getId();
 
         try {
             GenresRepository.deleteById(normalizedId);
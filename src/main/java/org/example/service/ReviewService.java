@@ -1,28 +1,30 @@
 package org.example.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.example.dto.ReviewDTO;
+import org.example.cache.ResponseCache;
+import org.example.cache.ResponseCache.CachedResponse;
 import org.example.entity.Review;
 import org.example.mapper.ReviewMapper;
 import org.example.repository.BooksRepository;
 import org.example.repository.ReviewsRepository;
+import org.example.util.DtoJsonWriters;
+import org.example.util.ETagUtil;
+import org.example.util.JsonBuffer;
+import org.example.util.PageWriter;
+import org.example.util.Route;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
 
-import static org.example.util.RequestUtil.getId;
+import static org.example.util.ETagUtil.IF_NONE_MATCH_HEADER;
+import static org.example.util.ETagUtil.isNotModified;
+import static org.example.util.ETagUtil.sendNotModified;
+import static org.example.util.PaginationUtil.decodeCursor;
+import static org.example.util.PaginationUtil.getPageSize;
 
 public class ReviewService {
-    private static final int ROWS_PER_PAGE = 10;
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-
     public static void showReviews(HttpServletRequest request,
                                    HttpServletResponse response)
             throws IOException, ServletException {
@@ -30,35 +32,55 @@ public class ReviewService {
         String currentPage = request.getParameter("page");
         int normalizedPage = currentPage == null ? 1 : Integer.parseInt(currentPage);
 
-        List<Review> reviews;
+        int rowsPerPage;
+        Long afterId;
+        try {
+            rowsPerPage = getPageSize(request);
+            String after = request.getParameter("after");
+            afterId = after == null ? null : decodeCursor(after);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        var pageWriter = new PageWriter<Review>(request, response, rowsPerPage, ReviewMapper::toDTO,
+                DtoJsonWriters::writeReview);
         try {
-            reviews = ReviewsRepository.findEntities(normalizedPage - 1, ROWS_PER_PAGE);
+            if (afterId == null) {
+                ReviewsRepository.streamEntities(normalizedPage - 1, rowsPerPage, pageWriter);
+            } else {
+                ReviewsRepository.streamEntitiesAfter(afterId, rowsPerPage, pageWriter);
+            }
         } catch (SQLException e) {
-            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
             return;
         }
 
-        List<ReviewDTO> reviewDTOS = new ArrayList<>(reviews).stream()
-                .map(ReviewMapper::toDTO)
-                .toList();
-        String resultJsonString = OBJECT_MAPPER.writeValueAsString(reviewDTOS);
-        PrintWriter out = response.getWriter();
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-        out.print(resultJsonString);
-        out.flush();
+        pageWriter.finish();
     }
 
     public static void showReview(HttpServletRequest request,
                                   HttpServletResponse response)
             throws IOException, ServletException {
 
-        String id = getId(request);
-        Long normalizedId = Long.parseLong(Objects.requireNonNull(id));
+        Long normalizedId = Route.of(request).getId();
 
-        Review review;
+        CachedResponse cachedResponse;
         try {
-            review = ReviewsRepository.findById(normalizedId)
+            if (request.getHeader(IF_NONE_MATCH_HEADER) != null) {
+                var cachedETag = ResponseCache.REVIEWS.getETag(normalizedId);
+                var etag = cachedETag.isPresent() ? cachedETag.get() : ReviewsRepository.findETag(normalizedId)
+                        .orElseThrow(() -> new RuntimeException("Review not found"));
+                if (isNotModified(request, etag)) {
+                    sendNotModified(response, etag);
+                    return;
+                }
+            }
+            cachedResponse = ResponseCache.REVIEWS
+                    .get(normalizedId, ReviewsRepository::findById, ReviewMapper::toDTO,
+                            DtoJsonWriters::writeReview, ETagUtil::of)
                     .orElseThrow(() -> new RuntimeException("Review not found"));
         } catch (SQLException e) {
             response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
@@ -68,13 +90,7 @@ public class ReviewService {
             return;
         }
 
-        var reviewDTO = ReviewMapper.toDTO(review);
-        String resultJsonString = OBJECT_MAPPER.writeValueAsString(reviewDTO);
-        PrintWriter out = response.getWriter();
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-        out.print(resultJsonString);
-        out.flush();
+        ResponseCache.write(response, cachedResponse);
     }
 
     public static void createReview(HttpServletRequest request,
@@ -100,21 +116,15 @@ public class ReviewService {
         }
 
         var reviewDTO = ReviewMapper.toDTO(review);
-        String resultJsonString = OBJECT_MAPPER.writeValueAsString(reviewDTO);
-        PrintWriter out = response.getWriter();
         response.setStatus(HttpServletResponse.SC_CREATED);
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-        out.print(resultJsonString);
-        out.flush();
+        JsonBuffer.write(response, reviewDTO, DtoJsonWriters::writeReview);
     }
 
     public static void updateReview(HttpServletRequest request,
                                     HttpServletResponse response)
             throws IOException, ServletException {
 
-        String id = getId(request);
-        Long normalizedId = Long.parseLong(Objects.requireNonNull(id));
+        Long normalizedId = Route.of(request).getId();
 
         String content = request.getParameter("content");
 
@@ -133,20 +143,14 @@ public class ReviewService {
         }
 
         var reviewDTO = ReviewMapper.toDTO(review);
-        String resultJsonString = OBJECT_MAPPER.writeValueAsString(reviewDTO);
-        PrintWriter out = response.getWriter();
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-        out.print(resultJsonString);
-        out.flush();
+        JsonBuffer.write(response, reviewDTO, DtoJsonWriters::writeReview);
     }
 
     public static void destroyReview(HttpServletRequest request,
                                 HttpServletResponse response)
             throws IOException, ServletException {
 
-        String id = getId(request);
-        Long normalizedId = Long.parseLong(Objects.requireNonNull(id));
+        Long normalizedId = Route.of(request).getId();
 
         try {
             ReviewsRepository.deleteById(normalizedId);
@@ -0,0 +1,38 @@
+package org.example.service;
+
+import org.apache.commons.lang3.StringUtils;
+import org.example.search.SearchIndex;
+import org.example.util.DtoJsonWriters;
+import org.example.util.JsonBuffer;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static org.example.util.PaginationUtil.getPageSize;
+
+public class SearchService {
+    public static void search(HttpServletRequest request,
+                              HttpServletResponse response)
+            throws IOException, ServletException {
+
+        String query = request.getParameter("q");
+
+        int limit;
+        try {
+            limit = getPageSize(request);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        if (StringUtils.isBlank(query)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        var results = SearchIndex.search(query, limit);
+        JsonBuffer.write(response, results, DtoJsonWriters::writeSearchResults);
+    }
+}
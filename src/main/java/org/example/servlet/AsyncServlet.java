@@ -0,0 +1,99 @@
+package org.example.servlet;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.component.DbExecutor;
+import org.example.util.Route;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+
+@Slf4j
+public abstract class AsyncServlet extends HttpServlet {
+    private static final String RETRY_AFTER_SECONDS = "1";
+    // the time in the executor queue, waiting for a connection and running; Tomcat answers 500 after it
+    private static final long TIMEOUT_MILLIS = 60_000;
+
+    @FunctionalInterface
+    protected interface Handler {
+        void handle() throws IOException, ServletException;
+    }
+
+    // paths and methods without a handler are answered right away, without taking an executor thread
+    protected static void dispatch(HttpServletRequest request,
+                                   HttpServletResponse response,
+                                   Router router)
+            throws IOException, ServletException {
+
+        var handler = router.find(request);
+        if (handler == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        dispatch(request, response, () -> handler.handle(request, response));
+    }
+
+    // frees the request thread while the handler waits on the database, the handler runs on DbExecutor
+    // and the response is completed when it returns. On virtual threads the handler runs right here
+    protected static void dispatch(HttpServletRequest request,
+                                   HttpServletResponse response,
+                                   Handler handler)
+            throws IOException, ServletException {
+
+        if (DbExecutor.isInline()) {
+            handler.handle();
+            return;
+        }
+
+        var asyncContext = request.startAsync();
+        asyncContext.setTimeout(isImport(request) ? 0 : TIMEOUT_MILLIS);
+
+        try {
+            DbExecutor.execute(() -> {
+                try {
+                    handler.handle();
+                } catch (Exception e) {
+                    log.error("Request to {} failed", request.getRequestURI(), e);
+                    sendServerError(response);
+                } finally {
+                    complete(asyncContext);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            asyncContext.complete();
+        }
+    }
+
+    // imports may run for minutes, their waiting is bounded by the pool's connection timeout instead
+    private static boolean isImport(HttpServletRequest request) {
+        var route = Route.of(request);
+        return route != null && route.getAction() == Route.Action.IMPORT;
+    }
+
+    private static void complete(AsyncContext asyncContext) {
+        try {
+            asyncContext.complete();
+        } catch (IllegalStateException e) {
+            // the container already completed the request with an error when it timed out
+            log.warn("Request completed after its async timeout");
+        }
+    }
+
+    private static void sendServerError(HttpServletResponse response) {
+        if (response.isCommitted()) {
+            return;
+        }
+        try {
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        } catch (IOException e) {
+            log.warn("Could not send the error response", e);
+        }
+    }
+}
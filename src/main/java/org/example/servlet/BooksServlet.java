@@ -1,28 +1,32 @@
 package org.example.servlet;
 
 import javax.servlet.ServletException;
-import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
 import org.example.service.BookService;
+import org.example.util.Route.Action;
 
-import static org.example.util.RequestUtil.getAction;
+public class BooksServlet extends AsyncServlet {
+    private static final Router GET_ROUTES = new Router()
+            .on(Action.LIST, BookService::showBooks)
+            .on(Action.EXPORT, BookService::exportBooks)
+            .on(Action.SHOW, BookService::showBook);
+
+    private static final Router POST_ROUTES = new Router()
+            .on(Action.LIST, BookService::createBook)
+            .on(Action.BATCH, BookService::createBooks)
+            .on(Action.IMPORT, BookService::importBooks)
+            .on(Action.EDIT, BookService::updateBook)
+            .on(Action.DELETE, BookService::destroyBook);
 
-public class BooksServlet extends HttpServlet {
     @Override
     public void doGet(HttpServletRequest request,
                       HttpServletResponse response)
             throws IOException, ServletException {
 
-        String action = getAction(request);
-
-        if (action.equals("list")) {
-            BookService.showBooks(request, response);
-        } else {
-            BookService.showBook(request, response);
-        }
+        dispatch(request, response, GET_ROUTES);
     }
 
     @Override
@@ -30,12 +34,6 @@ public class BooksServlet extends HttpServlet {
                        HttpServletResponse response)
             throws IOException, ServletException {
 
-        String action = getAction(request);
-        switch (action) {
-            case "list" -> BookService.createBook(request, response);
-            case "edit" -> BookService.updateBook(request, response);
-            case "delete" -> BookService.destroyBook(request, response);
-            default -> response.sendError(HttpServletResponse.SC_NOT_FOUND);
-        }
+        dispatch(request, response, POST_ROUTES);
     }
 }
@@ -1,28 +1,40 @@
 package org.example.servlet;
 
 import org.example.service.GenreService;
+import org.example.util.Route.Action;
 
 import javax.servlet.ServletException;
-import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
-import static org.example.util.RequestUtil.getAction;
+public class GenresServlet extends AsyncServlet {
+    // stats come from memory, there is no point in queueing them behind database work
+    private static final Router IN_MEMORY_GET_ROUTES = new Router()
+            .on(Action.ALL_STATS, GenreService::showGenresStats)
+            .on(Action.STATS, GenreService::showGenreStats);
+
+    private static final Router GET_ROUTES = new Router()
+            .on(Action.LIST, GenreService::showGenres)
+            .on(Action.SHOW, GenreService::showGenre);
+
+    private static final Router POST_ROUTES = new Router()
+            .on(Action.LIST, GenreService::createGenre)
+            .on(Action.EDIT, GenreService::updateGenre)
+            .on(Action.DELETE, GenreService::destroyGenre);
 
-public class GenresServlet extends HttpServlet {
     @Override
     public void doGet(HttpServletRequest request,
                       HttpServletResponse response)
             throws IOException, ServletException {
 
-        String action = getAction(request);
-
-        if (action.equals("list")) {
-            GenreService.showGenres(request, response);
-        } else {
-            GenreService.showGenre(request, response);
+        var inMemoryHandler = IN_MEMORY_GET_ROUTES.find(request);
+        if (inMemoryHandler != null) {
+            inMemoryHandler.handle(request, response);
+            return;
         }
+
+        dispatch(request, response, GET_ROUTES);
     }
 
     @Override
@@ -30,13 +42,6 @@ public class GenresServlet extends HttpServlet {
                        HttpServletResponse response)
             throws IOException, ServletException {
 
-        String action = getAction(request);
-
-        switch (action) {
-            case "list" -> GenreService.createGenre(request, response);
-            case "edit" -> GenreService.updateGenre(request, response);
-            case "delete" -> GenreService.destroyGenre(request, response);
-            default -> response.sendError(HttpServletResponse.SC_NOT_FOUND);
-        }
+        dispatch(request, response, POST_ROUTES);
     }
 }
@@ -0,0 +1,56 @@
+package org.example.servlet;
+
+import org.example.util.ETagUtil;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+
+// Tomcat gzips on the connector, after the ETag is set, so the gzip and the identity body would share one
+// strong ETag. Only clients accepting gzip can get a compressed body, so their ETags get a -gzip suffix and
+// each strong ETag stands for one sequence of bytes; ETagUtil.isNotModified drops the suffix again.
+public class GzipETagFilter implements Filter {
+    @Override
+    public void init(FilterConfig filterConfig) {
+        // no configuration
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        var acceptEncoding = ((HttpServletRequest) request).getHeader("Accept-Encoding");
+        // a superset of the requests Tomcat compresses, q-values are not weighed
+        if (acceptEncoding == null || !acceptEncoding.toLowerCase().contains("gzip")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        chain.doFilter(request, new HttpServletResponseWrapper((HttpServletResponse) response) {
+            @Override
+            public void setHeader(String name, String value) {
+                super.setHeader(name, gzipTag(name, value));
+            }
+
+            @Override
+            public void addHeader(String name, String value) {
+                super.addHeader(name, gzipTag(name, value));
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        // nothing to release
+    }
+
+    private static String gzipTag(String name, String value) {
+        return ETagUtil.ETAG_HEADER.equalsIgnoreCase(name) && value != null ? ETagUtil.gzipTag(value) : value;
+    }
+}
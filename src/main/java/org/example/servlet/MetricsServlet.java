@@ -0,0 +1,21 @@
+package org.example.servlet;
+
+import io.prometheus.client.exporter.common.TextFormat;
+import org.example.metrics.AppMetrics;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+public class MetricsServlet extends HttpServlet {
+    @Override
+    public void doGet(HttpServletRequest request,
+                      HttpServletResponse response)
+            throws IOException, ServletException {
+
+        response.setContentType(TextFormat.CONTENT_TYPE_004);
+        AppMetrics.getRegistry().scrape(response.getWriter());
+    }
+}
@@ -1,28 +1,29 @@
 package org.example.servlet;
 
 import org.example.service.ReviewService;
+import org.example.util.Route.Action;
 
 import javax.servlet.ServletException;
-import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
-import static org.example.util.RequestUtil.getAction;
+public class ReviewsServlet extends AsyncServlet {
+    private static final Router GET_ROUTES = new Router()
+            .on(Action.LIST, ReviewService::showReviews)
+            .on(Action.SHOW, ReviewService::showReview);
+
+    private static final Router POST_ROUTES = new Router()
+            .on(Action.LIST, ReviewService::createReview)
+            .on(Action.EDIT, ReviewService::updateReview)
+            .on(Action.DELETE, ReviewService::destroyReview);
 
-public class ReviewsServlet extends HttpServlet {
     @Override
     public void doGet(HttpServletRequest request,
                       HttpServletResponse response)
             throws IOException, ServletException {
 
-        String action = getAction(request);
-
-        if (action.equals("list")) {
-            ReviewService.showReviews(request, response);
-        } else {
-            ReviewService.showReview(request, response);
-        }
+        dispatch(request, response, GET_ROUTES);
     }
 
     @Override
@@ -30,13 +31,6 @@ public class ReviewsServlet extends HttpServlet {
                        HttpServletResponse response)
             throws IOException, ServletException {
 
-        String action = getAction(request);
-
-        switch (action) {
-            case "list" -> ReviewService.createReview(request, response);
-            case "edit" -> ReviewService.updateReview(request, response);
-            case "delete" -> ReviewService.destroyReview(request, response);
-            default -> response.sendError(HttpServletResponse.SC_NOT_FOUND);
-        }
+        dispatch(request, response, POST_ROUTES);
     }
 }
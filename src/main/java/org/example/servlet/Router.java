@@ -0,0 +1,29 @@
+package org.example.servlet;
+
+import org.example.util.Route;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// the handlers of one HTTP method of a servlet, indexed by the ordinal of the route's action
+public class Router {
+    private final Handler[] handlers = new Handler[Route.Action.values().length];
+
+    @FunctionalInterface
+    public interface Handler {
+        void handle(HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException;
+    }
+
+    public Router on(Route.Action action, Handler handler) {
+        handlers[action.ordinal()] = handler;
+        return this;
+    }
+
+    // null when the path is not a route or there is no handler for its action
+    public Handler find(HttpServletRequest request) {
+        var route = Route.of(request);
+        return route == null ? null : handlers[route.getAction().ordinal()];
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.servlet;
+
+import org.example.service.SearchService;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// served from the in-memory index on the request thread, there is no database call to hand off
+public class SearchServlet extends HttpServlet {
+    @Override
+    public void doGet(HttpServletRequest request,
+                      HttpServletResponse response)
+            throws IOException, ServletException {
+
+        SearchService.search(request, response);
+    }
+}
@@ -1,27 +1,26 @@
 package org.example.servlet;
 
-import com.google.gson.Gson;
+import org.example.util.JsonBuffer;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
 
 public class WelcomeServlet extends HttpServlet {
+    // the body never changes, so it is encoded once instead of by a new Gson on every request
+    private static final byte[] WELCOME_JSON =
+            JsonBuffer.toBytes(JsonBuffer::writeString, "Welcome to online notepad My Books");
 
     @Override
     public void doGet(HttpServletRequest request,
                       HttpServletResponse response)
             throws IOException, ServletException {
 
-        String welcomeJsonString = new Gson().toJson("Welcome to online notepad My Books");
-
-        PrintWriter out = response.getWriter();
         response.setContentType("application/json");
         response.setCharacterEncoding("UTF-8");
-        out.print(welcomeJsonString);
-        out.flush();
+        response.setContentLength(WELCOME_JSON.length);
+        response.getOutputStream().write(WELCOME_JSON);
     }
 }
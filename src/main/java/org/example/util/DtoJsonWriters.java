@@ -0,0 +1,143 @@
+package org.example.util;
+
+import org.example.dto.BookBatchResultDTO;
+import org.example.dto.BookDTO;
+import org.example.dto.GenreDTO;
+import org.example.dto.GenreStatsDTO;
+import org.example.dto.ImportResultDTO;
+import org.example.dto.ReviewDTO;
+import org.example.dto.SearchResultDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Serializers written out for each response DTO instead of the getters ObjectMapper finds by reflection.
+// They produce the same bytes ObjectMapper did, fields in declaration order and nulls written unless the DTO
+// excludes them, so a field added to a DTO has to be added here as well; DtoJsonWritersTest compares the two.
+public class DtoJsonWriters {
+    private static final byte[] ID = "{\"id\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TITLE = field("title");
+    private static final byte[] AUTHOR = field("author");
+    private static final byte[] GENRE_NAME = field("genreName");
+    private static final byte[] NAME = field("name");
+    private static final byte[] BOOK_TITLE = field("bookTitle");
+    private static final byte[] BOOK_AUTHOR = field("bookAuthor");
+    private static final byte[] CONTENT = field("content");
+    private static final byte[] SCORE = field("score");
+    private static final byte[] GENRE_ID = "{\"genreId\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BOOK_COUNT = field("bookCount");
+    private static final byte[] REVIEW_COUNT = field("reviewCount");
+    private static final byte[] STATUS = "{\"status\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BATCH_ID = field("id");
+    private static final byte[] ERROR = field("error");
+    private static final byte[] ROWS = "{\"rows\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BOOKS = field("books");
+    private static final byte[] REVIEWS = field("reviews");
+    private static final byte[] SKIPPED = field("skipped");
+    private static final byte[] ELAPSED_MILLIS = field("elapsedMillis");
+    private static final byte[] ROWS_PER_SECOND = field("rowsPerSecond");
+
+    public static void writeBook(JsonBuffer buffer, BookDTO book) {
+        buffer.writeRaw(ID);
+        buffer.writeLong(book.getId());
+        buffer.writeRaw(TITLE);
+        buffer.writeString(book.getTitle());
+        buffer.writeRaw(AUTHOR);
+        buffer.writeString(book.getAuthor());
+        buffer.writeRaw(GENRE_NAME);
+        buffer.writeString(book.getGenreName());
+        buffer.writeRaw('}');
+    }
+
+    public static void writeGenre(JsonBuffer buffer, GenreDTO genre) {
+        buffer.writeRaw(ID);
+        buffer.writeLong(genre.getId());
+        buffer.writeRaw(NAME);
+        buffer.writeString(genre.getName());
+        buffer.writeRaw('}');
+    }
+
+    public static void writeReview(JsonBuffer buffer, ReviewDTO review) {
+        buffer.writeRaw(ID);
+        buffer.writeLong(review.getId());
+        buffer.writeRaw(BOOK_TITLE);
+        buffer.writeString(review.getBookTitle());
+        buffer.writeRaw(BOOK_AUTHOR);
+        buffer.writeString(review.getBookAuthor());
+        buffer.writeRaw(CONTENT);
+        buffer.writeString(review.getContent());
+        buffer.writeRaw('}');
+    }
+
+    public static void writeGenreStats(JsonBuffer buffer, GenreStatsDTO genreStats) {
+        buffer.writeRaw(GENRE_ID);
+        buffer.writeLong(genreStats.getGenreId());
+        buffer.writeRaw(GENRE_NAME);
+        buffer.writeString(genreStats.getGenreName());
+        buffer.writeRaw(BOOK_COUNT);
+        buffer.writeLong(genreStats.getBookCount());
+        buffer.writeRaw(REVIEW_COUNT);
+        buffer.writeLong(genreStats.getReviewCount());
+        buffer.writeRaw('}');
+    }
+
+    public static void writeGenresStats(JsonBuffer buffer, List<GenreStatsDTO> genresStats) {
+        buffer.writeArray(genresStats, DtoJsonWriters::writeGenreStats);
+    }
+
+    public static void writeSearchResult(JsonBuffer buffer, SearchResultDTO searchResult) {
+        buffer.writeRaw(ID);
+        buffer.writeLong(searchResult.getId());
+        buffer.writeRaw(TITLE);
+        buffer.writeString(searchResult.getTitle());
+        buffer.writeRaw(AUTHOR);
+        buffer.writeString(searchResult.getAuthor());
+        buffer.writeRaw(SCORE);
+        buffer.writeDouble(searchResult.getScore());
+        buffer.writeRaw('}');
+    }
+
+    public static void writeSearchResults(JsonBuffer buffer, List<SearchResultDTO> searchResults) {
+        buffer.writeArray(searchResults, DtoJsonWriters::writeSearchResult);
+    }
+
+    // BookBatchResultDTO leaves out null fields
+    public static void writeBookBatchResult(JsonBuffer buffer, BookBatchResultDTO result) {
+        buffer.writeRaw(STATUS);
+        buffer.writeLong(result.getStatus());
+        if (result.getId() != null) {
+            buffer.writeRaw(BATCH_ID);
+            buffer.writeLong(result.getId());
+        }
+        if (result.getError() != null) {
+            buffer.writeRaw(ERROR);
+            buffer.writeString(result.getError());
+        }
+        buffer.writeRaw('}');
+    }
+
+    public static void writeBookBatchResults(JsonBuffer buffer, List<BookBatchResultDTO> results) {
+        buffer.writeArray(results, DtoJsonWriters::writeBookBatchResult);
+    }
+
+    public static void writeImportResult(JsonBuffer buffer, ImportResultDTO result) {
+        buffer.writeRaw(ROWS);
+        buffer.writeLong(result.getRows());
+        buffer.writeRaw(BOOKS);
+        buffer.writeLong(result.getBooks());
+        buffer.writeRaw(REVIEWS);
+        buffer.writeLong(result.getReviews());
+        buffer.writeRaw(SKIPPED);
+        buffer.writeLong(result.getSkipped());
+        buffer.writeRaw(ELAPSED_MILLIS);
+        buffer.writeLong(result.getElapsedMillis());
+        buffer.writeRaw(ROWS_PER_SECOND);
+        buffer.writeLong(result.getRowsPerSecond());
+        buffer.writeRaw('}');
+    }
+
+    // a field after the first one: separator, quoted name and colon
+    private static byte[] field(String name) {
+        return (",\"" + name + "\":").getBytes(StandardCharsets.US_ASCII);
+    }
+}
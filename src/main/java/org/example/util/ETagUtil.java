@@ -0,0 +1,99 @@
+package org.example.util;
+
+import org.example.entity.Book;
+import org.example.entity.Genre;
+import org.example.entity.Review;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class ETagUtil {
+    public static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+    public static final String ETAG_HEADER = "ETag";
+    public static final String GZIP_SUFFIX = "-gzip";
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // a representation changes with the entity's own version and with the versions of the entities
+    // whose fields it embeds: a book shows its genre name, a review shows its book title and author
+    public static String bookTag(long id, long version, long genreVersion) {
+        return "\"b" + id + "." + version + "." + genreVersion + "\"";
+    }
+
+    public static String genreTag(long id, long version) {
+        return "\"g" + id + "." + version + "\"";
+    }
+
+    public static String reviewTag(long bookId, long version, long bookVersion) {
+        return "\"r" + bookId + "." + version + "." + bookVersion + "\"";
+    }
+
+    public static String of(Book book) {
+        return bookTag(book.getId(), book.getVersion(), book.getGenre().getVersion());
+    }
+
+    public static String of(Genre genre) {
+        return genreTag(genre.getId(), genre.getVersion());
+    }
+
+    public static String of(Review review) {
+        return reviewTag(review.getId(), review.getVersion(), review.getBook().getVersion());
+    }
+
+    // FNV-1a over the tags of all rows on a page, in order
+    public static long hashPage(long hash, String rowTag) {
+        var result = hash;
+        for (int i = 0; i < rowTag.length(); i++) {
+            result ^= rowTag.charAt(i);
+            result *= FNV_PRIME;
+        }
+        return result;
+    }
+
+    public static long emptyPageHash() {
+        return FNV_OFFSET_BASIS;
+    }
+
+    public static String pageTag(long hash) {
+        return "\"p" + Long.toHexString(hash) + "\"";
+    }
+
+    // the ETag of the gzip-encoded body, see GzipETagFilter
+    public static String gzipTag(String etag) {
+        return etag.substring(0, etag.length() - 1) + GZIP_SUFFIX + "\"";
+    }
+
+    // If-None-Match uses the weak comparison, so W/ prefixes are ignored; a gzip ETag matches as well,
+    // both encodings carry the same data
+    public static boolean isNotModified(HttpServletRequest request, String etag) {
+        var ifNoneMatch = request.getHeader(IF_NONE_MATCH_HEADER);
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (var candidate : ifNoneMatch.split(",")) {
+            var tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.endsWith(GZIP_SUFFIX + "\"")) {
+                tag = tag.substring(0, tag.length() - GZIP_SUFFIX.length() - 1) + "\"";
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // caches may keep the response but have to revalidate it with the ETag before every reuse
+    public static void setETag(HttpServletResponse response, String etag) {
+        response.setHeader(ETAG_HEADER, etag);
+        response.setHeader("Cache-Control", "no-cache");
+    }
+
+    public static void sendNotModified(HttpServletResponse response, String etag) {
+        setETag(response, etag);
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    }
+}
@@ -0,0 +1,233 @@
+package org.example.util;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+// A growable buffer of UTF-8 JSON with the few primitives DtoJsonWriters need. Every thread reuses one buffer
+// through local(), so a response is encoded without the generator, its char buffers and the intermediate
+// String that ObjectMapper.writeValueAsString goes through.
+public class JsonBuffer {
+    // Tomcat's default output buffer, streamed responses are handed over in chunks of about this size
+    public static final int CHUNK_SIZE = 8 * 1024;
+
+    // a buffer grown by one large response is dropped instead of being kept for the life of the thread
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<JsonBuffer> LOCAL = ThreadLocal.withInitial(() -> new JsonBuffer(CHUNK_SIZE));
+
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    // 0 for ASCII written as is, 'u' for a hex escape, otherwise the character after the backslash;
+    // the same escapes ObjectMapper uses, so both produce the same bytes
+    private static final byte[] ESCAPES = new byte[128];
+
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            ESCAPES[c] = 'u';
+        }
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\t'] = 't';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\r'] = 'r';
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+    }
+
+    private byte[] bytes;
+    private int size;
+
+    public JsonBuffer(int capacity) {
+        bytes = new byte[capacity];
+    }
+
+    // the calling thread's buffer, emptied; it must not be held across another call to local()
+    public static JsonBuffer local() {
+        var buffer = LOCAL.get();
+        if (buffer.bytes.length > MAX_RETAINED_CAPACITY) {
+            buffer = new JsonBuffer(CHUNK_SIZE);
+            LOCAL.set(buffer);
+        }
+        buffer.size = 0;
+        return buffer;
+    }
+
+    public static <T> byte[] toBytes(JsonWriter<T> writer, T value) {
+        var buffer = local();
+        writer.write(buffer, value);
+        return buffer.toByteArray();
+    }
+
+    // writes the value as the whole body, straight from the thread's buffer
+    public static <T> void write(HttpServletResponse response, T value, JsonWriter<T> writer) throws IOException {
+        var buffer = local();
+        writer.write(buffer, value);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLength(buffer.size);
+        buffer.writeTo(response.getOutputStream());
+    }
+
+    public void writeRaw(char c) {
+        ensureCapacity(1);
+        bytes[size++] = (byte) c;
+    }
+
+    // pre-encoded ASCII such as a field name with its quotes and colon
+    public void writeRaw(byte[] raw) {
+        ensureCapacity(raw.length);
+        System.arraycopy(raw, 0, bytes, size, raw.length);
+        size += raw.length;
+    }
+
+    public void writeNull() {
+        writeRaw(NULL);
+    }
+
+    public void writeLong(Long value) {
+        if (value == null) {
+            writeNull();
+        } else {
+            writeLong(value.longValue());
+        }
+    }
+
+    public void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeRaw(MIN_LONG);
+            return;
+        }
+
+        ensureCapacity(20);
+        if (value < 0) {
+            bytes[size++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        size += digits;
+        int position = size;
+        do {
+            bytes[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+    }
+
+    public void writeDouble(double value) {
+        // like ObjectMapper, which quotes the values JSON numbers cannot express
+        var text = Double.isNaN(value) || Double.isInfinite(value)
+                ? "\"" + value + "\""
+                : Double.toString(value);
+        writeRaw(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+
+        int length = value.length();
+        // room for the common case of ASCII without escapes, one byte per char, and both quotes
+        ensureCapacity(length + 2);
+        bytes[size++] = '"';
+        int i = 0;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80 || ESCAPES[c] != 0) {
+                break;
+            }
+            bytes[size++] = (byte) c;
+        }
+        if (i < length) {
+            writeEscaped(value, i);
+        }
+        writeRaw('"');
+    }
+
+    public <T> void writeArray(List<T> values, JsonWriter<T> writer) {
+        writeRaw('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writeRaw(',');
+            }
+            writer.write(this, values.get(i));
+        }
+        writeRaw(']');
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isChunkFull() {
+        return size >= CHUNK_SIZE;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    // writes what was buffered and empties the buffer for the next chunk
+    public void drainTo(OutputStream out) throws IOException {
+        writeTo(out);
+        size = 0;
+    }
+
+    private void writeEscaped(String value, int from) {
+        int length = value.length();
+        for (int i = from; i < length; i++) {
+            char c = value.charAt(i);
+            // at most six bytes per char, a hex escape
+            ensureCapacity(6);
+            if (c < 0x80) {
+                byte escape = ESCAPES[c];
+                if (escape == 0) {
+                    bytes[size++] = (byte) c;
+                } else if (escape == 'u') {
+                    writeHexEscape(c);
+                } else {
+                    bytes[size++] = '\\';
+                    bytes[size++] = escape;
+                }
+            } else if (c < 0x800) {
+                bytes[size++] = (byte) (0xC0 | c >> 6);
+                bytes[size++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // as ObjectMapper does, each half of a pair is escaped on its own rather than encoded in four bytes
+                writeHexEscape(c);
+            } else {
+                bytes[size++] = (byte) (0xE0 | c >> 12);
+                bytes[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytes[size++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    private void writeHexEscape(char c) {
+        bytes[size++] = '\\';
+        bytes[size++] = 'u';
+        bytes[size++] = HEX[c >> 12];
+        bytes[size++] = HEX[c >> 8 & 0xF];
+        bytes[size++] = HEX[c >> 4 & 0xF];
+        bytes[size++] = HEX[c & 0xF];
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.util;
+
+// writes one value as JSON, see DtoJsonWriters for the ones of the DTOs
+@FunctionalInterface
+public interface JsonWriter<T> {
+    void write(JsonBuffer buffer, T value);
+}
@@ -0,0 +1,37 @@
+package org.example.util;
+
+import org.example.repository.RowHandler;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.function.Function;
+
+public class NdjsonWriter<T> implements RowHandler<T> {
+    private final JsonWriter<T> jsonWriter;
+    private final ServletOutputStream out;
+    // held until finish, nothing else on this thread writes JSON during the export
+    private final JsonBuffer buffer = JsonBuffer.local();
+
+    public <D> NdjsonWriter(HttpServletResponse response, Function<T, D> toDTO, JsonWriter<D> dtoWriter)
+            throws IOException {
+        this.jsonWriter = (buffer, entity) -> dtoWriter.write(buffer, toDTO.apply(entity));
+
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        this.out = response.getOutputStream();
+    }
+
+    @Override
+    public void accept(T entity) throws IOException {
+        jsonWriter.write(buffer, entity);
+        buffer.writeRaw('\n');
+        if (buffer.isChunkFull()) {
+            buffer.drainTo(out);
+        }
+    }
+
+    public void finish() throws IOException {
+        buffer.drainTo(out);
+    }
+}
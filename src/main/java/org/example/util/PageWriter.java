@@ -0,0 +1,95 @@
+package org.example.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.repository.PageHandler;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.function.Function;
+
+import static org.example.util.PaginationUtil.setNextCursor;
+
+// writes a page as one array in the representation negotiated from the request's Accept header;
+// JSON goes through the DTO's JsonWriter, the binary encodings through Jackson
+public class PageWriter<T> implements PageHandler<T> {
+    private final HttpServletRequest request;
+    private final HttpServletResponse response;
+    private final int rowsPerPage;
+    private final Function<T, ?> toDTO;
+    private final JsonWriter<T> jsonWriter;
+    private final Representation representation;
+    private final ObjectWriter objectWriter;
+    private JsonGenerator generator;
+    private JsonBuffer buffer;
+    private ServletOutputStream out;
+    private int rowCount;
+
+    public <D> PageWriter(HttpServletRequest request, HttpServletResponse response, int rowsPerPage,
+                          Function<T, D> toDTO, JsonWriter<D> dtoWriter) {
+        this.request = request;
+        this.response = response;
+        this.rowsPerPage = rowsPerPage;
+        this.toDTO = toDTO;
+        this.jsonWriter = (buffer, entity) -> dtoWriter.write(buffer, toDTO.apply(entity));
+        this.representation = Representation.negotiate(request);
+        // rows must pile up in the generator buffer instead of being flushed to the socket one by one
+        this.objectWriter = representation.getObjectMapper().writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    public boolean begin(int rowCount, Long lastId, String pageTag) throws IOException {
+        var etag = representation.tag(pageTag);
+        response.setHeader("Vary", "Accept");
+        setNextCursor(response, rowCount, lastId, rowsPerPage);
+        if (ETagUtil.isNotModified(request, etag)) {
+            ETagUtil.sendNotModified(response, etag);
+            return false;
+        }
+
+        ETagUtil.setETag(response, etag);
+        response.setContentType(representation.getContentType());
+        if (representation == Representation.JSON) {
+            response.setCharacterEncoding("UTF-8");
+            out = response.getOutputStream();
+            // held until finish, nothing else on this thread writes JSON while the page is read
+            buffer = JsonBuffer.local();
+            buffer.writeRaw('[');
+        } else {
+            generator = objectWriter.getFactory().createGenerator(response.getOutputStream());
+            generator.writeStartArray();
+        }
+        return true;
+    }
+
+    @Override
+    public void accept(T entity) throws IOException {
+        if (buffer == null) {
+            objectWriter.writeValue(generator, toDTO.apply(entity));
+            return;
+        }
+
+        if (rowCount++ > 0) {
+            buffer.writeRaw(',');
+        }
+        jsonWriter.write(buffer, entity);
+        if (buffer.isChunkFull()) {
+            buffer.drainTo(out);
+        }
+    }
+
+    public void finish() throws IOException {
+        if (buffer != null) {
+            buffer.writeRaw(']');
+            buffer.drainTo(out);
+        } else if (generator != null) {
+            generator.writeEndArray();
+            generator.close();
+        }
+        // otherwise the page was not modified, there is no body to close
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.util;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class PaginationUtil {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int DEFAULT_PAGE_SIZE = 10;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static int getPageSize(HttpServletRequest request) {
+        String size = request.getParameter("size");
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        int normalizedSize = Integer.parseInt(size);
+        if (normalizedSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Math.min(normalizedSize, MAX_PAGE_SIZE);
+    }
+
+    public static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Long decodeCursor(String cursor) {
+        // both Base64 and Long parsing failures surface as IllegalArgumentException
+        var decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        return Long.parseLong(decoded);
+    }
+
+    public static void setNextCursor(HttpServletResponse response, int rowCount, Long lastId, int rowsPerPage) {
+        if (lastId == null || rowCount < rowsPerPage) {
+            return;
+        }
+        response.setHeader(NEXT_CURSOR_HEADER, encodeCursor(lastId));
+    }
+}
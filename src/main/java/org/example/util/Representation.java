@@ -0,0 +1,50 @@
+package org.example.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import lombok.Getter;
+
+import javax.servlet.http.HttpServletRequest;
+
+@Getter
+public enum Representation {
+    JSON("application/json", new ObjectMapper()),
+    // binary encodings of the same JSON data model, opt-in through the Accept header
+    SMILE("application/x-jackson-smile", new SmileMapper()),
+    CBOR("application/cbor", new CBORMapper());
+
+    private final String contentType;
+    private final ObjectMapper objectMapper;
+
+    Representation(String contentType, ObjectMapper objectMapper) {
+        this.contentType = contentType;
+        this.objectMapper = objectMapper;
+    }
+
+    // the first media range naming a supported type wins, q-values are not weighed;
+    // anything else, including */* and a missing header, gets JSON
+    public static Representation negotiate(HttpServletRequest request) {
+        var accept = request.getHeader("Accept");
+        if (accept == null) {
+            return JSON;
+        }
+        for (var mediaRange : accept.split(",")) {
+            var mediaType = mediaRange.split(";")[0].trim();
+            for (var representation : values()) {
+                if (representation.contentType.equalsIgnoreCase(mediaType)) {
+                    return representation;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    // the same data in another encoding is a different representation and needs its own ETag
+    public String tag(String etag) {
+        if (this == JSON) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + name().toLowerCase() + "\"";
+    }
+}
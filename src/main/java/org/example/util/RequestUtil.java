@@ -1,25 +0,0 @@
-package org.example.util;
-
-import org.apache.commons.lang3.ArrayUtils;
-
-import javax.servlet.http.HttpServletRequest;
-
-public class RequestUtil {
-    public static String getId(HttpServletRequest request) {
-        String pathInfo = request.getPathInfo();
-        if (pathInfo == null) {
-            return null;
-        }
-        String[] pathParts = pathInfo.split("/");
-        return ArrayUtils.get(pathParts, 1, null);
-    }
-
-    public static String getAction(HttpServletRequest request) {
-        String pathInfo = request.getPathInfo();
-        if (pathInfo == null) {
-            return "list";
-        }
-        String[] pathParts = pathInfo.split("/");
-        return ArrayUtils.get(pathParts, 2, getId(request));
-    }
-}
@@ -0,0 +1,131 @@
+package org.example.util;
+
+import lombok.Getter;
+
+import javax.servlet.http.HttpServletRequest;
+
+// The path info of a resource servlet, parsed once per request and kept as a request attribute so that
+// the metrics filter, the servlet and the service share it. /, /list, /export, /batch, /import and /stats
+// address the collection; /{id}, /{id}/edit, /{id}/delete and /{id}/stats a single entity.
+// Segments are compared in place and the id is read digit by digit, so parsing creates no substrings or
+// arrays; collection routes are constants and an entity route is the only object allocated.
+@Getter
+public final class Route {
+    private static final String ATTRIBUTE = Route.class.getName();
+    private static final long NO_ID = -1;
+    // longer ids could overflow a long
+    private static final int MAX_ID_DIGITS = 18;
+
+    private static final Action[] ACTIONS = Action.values();
+    private static final Route[] COLLECTION_ROUTES = new Route[ACTIONS.length];
+
+    static {
+        for (var action : ACTIONS) {
+            if (!action.isEntity()) {
+                COLLECTION_ROUTES[action.ordinal()] = new Route(action, NO_ID);
+            }
+        }
+    }
+
+    @Getter
+    public enum Action {
+        LIST("list", false),
+        EXPORT("export", false),
+        BATCH("batch", false),
+        IMPORT("import", false),
+        ALL_STATS("stats", false),
+        SHOW("{id}", true),
+        EDIT("edit", true),
+        DELETE("delete", true),
+        STATS("stats", true);
+
+        // the path segment, and the action tag of the request metrics
+        private final String label;
+        private final boolean entity;
+
+        Action(String label, boolean entity) {
+            this.label = label;
+            this.entity = entity;
+        }
+    }
+
+    private final Action action;
+    private final long id;
+
+    private Route(Action action, long id) {
+        this.action = action;
+        this.id = id;
+    }
+
+    // null when the path is not a route of a resource servlet
+    public static Route of(HttpServletRequest request) {
+        var route = (Route) request.getAttribute(ATTRIBUTE);
+        if (route == null) {
+            route = parse(request.getPathInfo());
+            if (route != null) {
+                request.setAttribute(ATTRIBUTE, route);
+            }
+        }
+        return route;
+    }
+
+    public static Route parse(String pathInfo) {
+        if (pathInfo == null) {
+            return COLLECTION_ROUTES[Action.LIST.ordinal()];
+        }
+
+        var end = pathInfo.length();
+        if (end > 1 && pathInfo.charAt(end - 1) == '/') {
+            end--;
+        }
+        if (end <= 1) {
+            return COLLECTION_ROUTES[Action.LIST.ordinal()];
+        }
+
+        var firstEnd = pathInfo.indexOf('/', 1);
+        if (firstEnd < 0 || firstEnd > end) {
+            firstEnd = end;
+        }
+
+        var id = parseId(pathInfo, 1, firstEnd);
+        if (id == NO_ID) {
+            if (firstEnd != end) {
+                return null;
+            }
+            var action = match(pathInfo, 1, end, false);
+            return action == null ? null : COLLECTION_ROUTES[action.ordinal()];
+        }
+        if (firstEnd == end) {
+            return new Route(Action.SHOW, id);
+        }
+        var action = match(pathInfo, firstEnd + 1, end, true);
+        return action == null || action == Action.SHOW ? null : new Route(action, id);
+    }
+
+    private static long parseId(String path, int start, int end) {
+        if (start == end || end - start > MAX_ID_DIGITS) {
+            return NO_ID;
+        }
+        long id = 0;
+        for (int i = start; i < end; i++) {
+            var digit = path.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NO_ID;
+            }
+            id = id * 10 + digit;
+        }
+        return id;
+    }
+
+    private static Action match(String path, int start, int end, boolean entity) {
+        var length = end - start;
+        for (var action : ACTIONS) {
+            var label = action.getLabel();
+            if (action.isEntity() == entity && label.length() == length
+                    && path.regionMatches(start, label, 0, length)) {
+                return action;
+            }
+        }
+        return null;
+    }
+}
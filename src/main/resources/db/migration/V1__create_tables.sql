@@ -0,0 +1,23 @@
+CREATE TABLE IF NOT EXISTS genres (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  name varchar(255) UNIQUE NOT NULL,
+  created_at TIMESTAMP NOT NULL,
+  CONSTRAINT PK_genres PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS books (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  title VARCHAR(255) UNIQUE NOT NULL,
+  author VARCHAR(255) NOT NULL,
+  genre_id BIGINT NOT NULL,
+  created_at TIMESTAMP NOT NULL,
+  CONSTRAINT PK_books PRIMARY KEY (id),
+  CONSTRAINT FK_books_genres FOREIGN KEY (genre_id) REFERENCES genres (id)
+);
+
+CREATE TABLE IF NOT EXISTS reviews (
+  book_id BIGINT UNIQUE NOT NULL,
+  content TEXT NOT NULL,
+  created_at TIMESTAMP NOT NULL,
+  CONSTRAINT FK_reviews_books FOREIGN KEY (book_id) REFERENCES books (id) ON DELETE CASCADE
+);
@@ -0,0 +1,5 @@
+-- the author and genre filters select by the first column and page by the second,
+-- so both the lookup and ORDER BY id LIMIT are served by the index without a sort
+CREATE INDEX IF NOT EXISTS idx_books_author_id ON books (author, id);
+
+CREATE INDEX IF NOT EXISTS idx_books_genre_id_id ON books (genre_id, id);
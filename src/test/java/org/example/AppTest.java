@@ -1,8 +1,12 @@
 package org.example;
 
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import kong.unirest.Unirest;
 import lombok.SneakyThrows;
 import org.apache.catalina.startup.Tomcat;
+import org.example.cache.GenreStats;
+import org.example.cache.ResponseCache;
+import org.example.component.GenreStatsReconciler;
 import org.example.entity.Book;
 import org.example.entity.Genre;
 import org.example.entity.Review;
@@ -125,6 +129,85 @@ public class AppTest {
         }
     }
 
+    @SneakyThrows
+    @Test
+    void handleGetAllBooksWhenRequestWithQueryParamAfterThenReturnsValidResponseEntity() {
+        for (int i = 1; i <= 24; i++) {
+            BooksRepository.save(new Book(i + "Title", i + "Author", testGenre));
+        }
+        var firstPageResponse = Unirest.get(baseUrl + "/books").asString();
+        var cursor = firstPageResponse.getHeaders().getFirst("X-Next-Cursor");
+        var requestUrl = baseUrl + "/books?after=" + cursor;
+
+        var response = Unirest.get(requestUrl).asString();
+
+        assertThat(cursor).isNotEmpty();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThatJson(response.getBody()).isArray();
+        var actualBooks = BooksRepository.findEntities(1, 10);
+        for (var book: actualBooks) {
+            assertThat(response.getBody()).contains(String.valueOf(book.getId()));
+            assertThat(response.getBody()).contains(book.getTitle());
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    void handleGetAllBooksWhenRequestWithInvalidQueryParamAfterThenReturnsBadRequestResponse() {
+        var requestUrl = baseUrl + "/books?after=not-a-cursor";
+
+        var response = Unirest.get(requestUrl).asString();
+
+        assertThat(response.getStatus()).isEqualTo(400);
+    }
+
+    @SneakyThrows
+    @Test
+    void handleGetAllBooksWhenRequestWithQueryParamSizeThenReturnsValidResponseEntity() {
+        for (int i = 1; i <= 24; i++) {
+            BooksRepository.save(new Book(i + "Title", i + "Author", testGenre));
+        }
+        var requestUrl = baseUrl + "/books?size=20";
+
+        var response = Unirest.get(requestUrl).asString();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThatJson(response.getBody()).isArray().hasSize(20);
+    }
+
+    @SneakyThrows
+    @Test
+    void handleGetAllBooksWhenRequestWithInvalidQueryParamSizeThenReturnsBadRequestResponse() {
+        var requestUrl = baseUrl + "/books?size=0";
+
+        var response = Unirest.get(requestUrl).asString();
+
+        assertThat(response.getStatus()).isEqualTo(400);
+    }
+
+    @SneakyThrows
+    @Test
+    void handleExportBooksWhenRequestWithPathParamExportThenReturnsAllBooksAsNdjson() {
+        for (int i = 1; i <= 24; i++) {
+            BooksRepository.save(new Book(i + "Title", i + "Author", testGenre));
+        }
+        var requestUrl = baseUrl + "/books/export";
+
+        var response = Unirest.get(requestUrl).asString();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        var lines = response.getBody().split("\n");
+        var expectedBooks = BooksRepository.findEntities(0, 100);
+        assertThat(lines.length).isEqualTo(expectedBooks.size());
+        for (int i = 0; i < lines.length; i++) {
+            var book = expectedBooks.get(i);
+            assertThatJson(lines[i]).and(
+                    v -> v.node("id").isEqualTo(book.getId()),
+                    v -> v.node("title").isEqualTo(book.getTitle())
+            );
+        }
+    }
+
     @SneakyThrows
     @Test
     void handleGetAllBooksWhenRequestWithPathParamListThenReturnsValidResponseEntity() {
@@ -190,6 +273,108 @@ public class AppTest {
         assertThat(response.getStatus()).isEqualTo(404);
     }
 
+    @SneakyThrows
+    @Test
+    void handleGetBookWhenPathIsNotRouteThenReturnsNotFoundResponse() {
+        var responseWithTextId = Unirest.get(baseUrl + "/books/abc").asString();
+        var responseWithUnknownAction = Unirest.get(baseUrl + "/books/" + testBook.getId() + "/unknown").asString();
+        var responseWithPostOnlyAction = Unirest.get(baseUrl + "/books/" + testBook.getId() + "/edit").asString();
+
+        assertThat(responseWithTextId.getStatus()).isEqualTo(404);
+        assertThat(responseWithUnknownAction.getStatus()).isEqualTo(404);
+        assertThat(responseWithPostOnlyAction.getStatus()).isEqualTo(404);
+    }
+
+    @SneakyThrows
+    @Test
+    void handleGetExistingBookWhenIfNoneMatchEqualsETagThenReturnsNotModifiedResponse() {
+        var requestUrl = baseUrl + "/books/" + testBook.getId();
+        var etag = Unirest.get(requestUrl).asString().getHeaders().getFirst("ETag");
+
+        var response = Unirest.get(requestUrl)
+                .header("If-None-Match", etag)
+                .asString();
+
+        assertThat(etag).isNotEmpty();
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeaders().getFirst("ETag")).isEqualTo(etag);
+        assertThat(response.getBody()).isEmpty();
+    }
+
+    @SneakyThrows
+    @Test
+    void handleGetExistingBookWhenBookOrItsGenreIsUpdatedThenReturnsNewETag() {
+        var requestUrl = baseUrl + "/books/" + testBook.getId();
+        var etag = Unirest.get(requestUrl).asString().getHeaders().getFirst("ETag");
+
+        Unirest.post(requestUrl + "/edit?title=Updated&author=Updated&genreName=" + testGenre.getName()).asEmpty();
+        var responseAfterBookUpdate = Unirest.get(requestUrl)
+                .header("If-None-Match", etag)
+                .asString();
+        var bookETag = responseAfterBookUpdate.getHeaders().getFirst("ETag");
+        Unirest.post(baseUrl + "/genres/" + testGenre.getId() + "/edit?name=Updated").asEmpty();
+        var responseAfterGenreUpdate = Unirest.get(requestUrl)
+                .header("If-None-Match", bookETag)
+                .asString();
+
+        assertThat(responseAfterBookUpdate.getStatus()).isEqualTo(200);
+        assertThat(bookETag).isNotEqualTo(etag);
+        assertThat(responseAfterGenreUpdate.getStatus()).isEqualTo(200);
+        assertThatJson(responseAfterGenreUpdate.getBody()).node("genreName").isEqualTo("Updated");
+    }
+
+    @SneakyThrows
+    @Test
+    void handleGetExistingBookWhenRequestedTwiceThenServesCachedResponse() {
+        var requestUrl = baseUrl + "/books/" + testBook.getId();
+        var firstResponse = Unirest.get(requestUrl).asString();
+        var hitCount = ResponseCache.BOOKS.getHitCount();
+
+        var response = Unirest.get(requestUrl).asString();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeaders().getFirst("Content-Type")).startsWith("application/json");
+        assertThat(response.getHeaders().getFirst("ETag")).isEqualTo(firstResponse.getHeaders().getFirst("ETag"));
+        assertThat(response.getBody()).isEqualTo(firstResponse.getBody());
+        assertThat(ResponseCache.BOOKS.getHitCount() - hitCount).isEqualTo(1L);
+    }
+
+    @SneakyThrows
+    @Test
+    void handleGetExistingReviewWhenItsBookIsUpdatedThenReturnsNewBookTitle() {
+        var requestUrl = baseUrl + "/reviews/" + testReview.getId();
+        Unirest.get(requestUrl).asString();
+
+        Unirest.post(baseUrl + "/books/" + testBook.getId()
+                + "/edit?title=Updated&author=Updated&genreName=" + testGenre.getName()).asEmpty();
+        var response = Unirest.get(requestUrl).asString();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThatJson(response.getBody()).and(
+                v -> v.node("bookTitle").isEqualTo("Updated"),
+                v -> v.node("bookAuthor").isEqualTo("Updated")
+        );
+    }
+
+    @SneakyThrows
+    @Test
+    void handleGetAllBooksWhenIfNoneMatchEqualsPageETagThenReturnsNotModifiedResponse() {
+        var requestUrl = baseUrl + "/books";
+        var etag = Unirest.get(requestUrl).asString().getHeaders().getFirst("ETag");
+
+        var response = Unirest.get(requestUrl)
+                .header("If-None-Match", etag)
+                .asString();
+        BooksRepository.save(new Book("Title", "Author", testGenre));
+        var responseAfterSave = Unirest.get(requestUrl)
+                .header("If-None-Match", etag)
+                .asString();
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(responseAfterSave.getStatus()).isEqualTo(200);
+        assertThat(responseAfterSave.getHeaders().getFirst("ETag")).isNotEqualTo(etag);
+    }
+
     @SneakyThrows
     @Test
     void handleCreateNewBookWhenRequestWithUniqueQueryParamTitleThenReturnsValidResponseEntity() {
@@ -221,6 +406,113 @@ public class AppTest {
         assertThat(response.getStatus()).isEqualTo(500);
     }
 
+    @SneakyThrows
+    @Test
+    void handleCreateBooksWhenPayloadIsArrayThenReturnsResultPerItem() {
+        var genreName = testGenre.getName();
+        var requestUrl = baseUrl + "/books/batch";
+        var body = "["
+                + "{\"title\": \"Batch title\", \"author\": \"Batch author\", \"genreName\": \"" + genreName + "\"},"
+                + "{\"title\": \"" + testBook.getTitle() + "\", \"author\": \"Batch author\", "
+                + "\"genreName\": \"" + genreName + "\"},"
+                + "{\"title\": \"Batch title\", \"author\": \"Batch author\", \"genreName\": \"" + genreName + "\"},"
+                + "{\"title\": \"Other title\", \"author\": \"Batch author\", \"genreName\": \"Unknown genre\"},"
+                + "{\"title\": \"Other title\"}"
+                + "]";
+
+        var response = Unirest.post(requestUrl)
+                .header("Content-Type", "application/json")
+                .body(body)
+                .asString();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        var actualBook = BooksRepository.findByTitle("Batch title").orElse(null);
+        assertThat(actualBook).isNotNull();
+        assertThat(actualBook.getGenre().getName()).isEqualTo(genreName);
+        assertThatJson(response.getBody()).isArray().hasSize(5);
+        assertThatJson(response.getBody()).node("[0].status").isEqualTo(201);
+        assertThatJson(response.getBody()).node("[0].id").isEqualTo(actualBook.getId());
+        assertThatJson(response.getBody()).node("[1].status").isEqualTo(409);
+        assertThatJson(response.getBody()).node("[2].status").isEqualTo(409);
+        assertThatJson(response.getBody()).node("[3].status").isEqualTo(404);
+        assertThatJson(response.getBody()).node("[4].status").isEqualTo(400);
+    }
+
+    @SneakyThrows
+    @Test
+    void handleCreateBooksWhenPayloadIsNotJsonArrayThenReturnsBadRequestResponse() {
+        var requestUrl = baseUrl + "/books/batch";
+
+        var response = Unirest.post(requestUrl)
+                .header("Content-Type", "application/json")
+                .body("{\"title\": \"Batch title\"}")
+                .asString();
+
+        assertThat(response.getStatus()).isEqualTo(400);
+    }
+
+    @SneakyThrows
+    @Test
+    void handleImportBooksWhenPayloadIsCsvThenImportsBooksAndReviews() {
+        var genreName = testGenre.getName();
+        var requestUrl = baseUrl + "/books/import";
+        var body = "title,author,genreName,review\n"
+                + "Imported title,Imported author," + genreName + ",Imported review\n"
+                + "Other title,Imported author,Unknown genre,\n"
+                + testBook.getTitle() + ",Imported author," + genreName + ",\n";
+
+        var response = Unirest.post(requestUrl)
+                .header("Content-Type", "text/csv")
+                .body(body)
+                .asString();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThatJson(response.getBody()).node("rows").isEqualTo(3);
+        assertThatJson(response.getBody()).node("books").isEqualTo(1);
+        assertThatJson(response.getBody()).node("reviews").isEqualTo(1);
+        assertThatJson(response.getBody()).node("skipped").isEqualTo(2);
+        var actualBook = BooksRepository.findByTitle("Imported title").orElse(null);
+        assertThat(actualBook).isNotNull();
+        var actualReview = ReviewsRepository.findById(actualBook.getId()).orElse(null);
+        assertThat(actualReview).isNotNull();
+        assertThat(actualReview.getContent()).isEqualTo("Imported review");
+    }
+
+    @SneakyThrows
+    @Test
+    void handleImportBooksWhenPayloadIsNdjsonThenImportsBooks() {
+        var genreName = testGenre.getName();
+        var requestUrl = baseUrl + "/books/import";
+        var body = "{\"title\": \"Imported title 1\", \"author\": \"Imported author\", \"genreName\": \""
+                + genreName + "\"}\n"
+                + "{\"title\": \"Imported title 2\", \"author\": \"Imported author\", \"genreName\": \""
+                + genreName + "\", \"review\": \"Imported review\"}\n";
+
+        var response = Unirest.post(requestUrl)
+                .header("Content-Type", "application/x-ndjson")
+                .body(body)
+                .asString();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThatJson(response.getBody()).node("books").isEqualTo(2);
+        assertThatJson(response.getBody()).node("reviews").isEqualTo(1);
+        assertThat(BooksRepository.findByTitle("Imported title 1")).isPresent();
+        assertThat(BooksRepository.findByTitle("Imported title 2")).isPresent();
+    }
+
+    @SneakyThrows
+    @Test
+    void handleImportBooksWhenContentTypeIsUnsupportedThenReturnsUnsupportedMediaTypeResponse() {
+        var requestUrl = baseUrl + "/books/import";
+
+        var response = Unirest.post(requestUrl)
+                .header("Content-Type", "application/xml")
+                .body("<books/>")
+                .asString();
+
+        assertThat(response.getStatus()).isEqualTo(415);
+    }
+
     @SneakyThrows
     @Test
     void handleUpdateBookWhenPayloadIsValidThenReturnsValidResponseEntity() {
@@ -256,6 +548,44 @@ public class AppTest {
         assertThat(reviewRelatedToBook).isNull();
     }
 
+    @SneakyThrows
+    @Test
+    void handleSearchWhenQueryMatchesReviewContentThenReturnsBook() {
+        var book = new Book("Searchable title", "Searchable author", testGenre);
+        BooksRepository.save(book);
+        ReviewsRepository.save(new Review("An unforgettable voyage", book));
+        var requestUrl = baseUrl + "/search?q=unforget";
+
+        var response = Unirest.get(requestUrl).asString();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThatJson(response.getBody()).isArray().hasSize(1);
+        assertThatJson(response.getBody()).node("[0].id").isEqualTo(book.getId());
+        assertThatJson(response.getBody()).node("[0].title").isEqualTo("Searchable title");
+    }
+
+    @SneakyThrows
+    @Test
+    void handleSearchWhenBookIsDeletedThenDoesNotReturnIt() {
+        var requestUrl = baseUrl + "/search?q=test";
+        BooksRepository.deleteById(testBook.getId());
+
+        var response = Unirest.get(requestUrl).asString();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThatJson(response.getBody()).isArray().isEmpty();
+    }
+
+    @SneakyThrows
+    @Test
+    void handleSearchWhenRequestWithoutQueryParamQThenReturnsBadRequestResponse() {
+        var requestUrl = baseUrl + "/search";
+
+        var response = Unirest.get(requestUrl).asString();
+
+        assertThat(response.getStatus()).isEqualTo(400);
+    }
+
     @SneakyThrows
     @Test
     void handleGetAllGenresWhenRequestWithoutQueryParamThenReturnsValidResponseEntity() {
@@ -333,6 +663,19 @@ public class AppTest {
         assertThat(response.getStatus()).isEqualTo(404);
     }
 
+    @SneakyThrows
+    @Test
+    void handleGetExistingGenreWhenIfNoneMatchEqualsETagThenReturnsNotModifiedResponse() {
+        var requestUrl = baseUrl + "/genres/" + testGenre.getId();
+        var etag = Unirest.get(requestUrl).asString().getHeaders().getFirst("ETag");
+
+        var response = Unirest.get(requestUrl)
+                .header("If-None-Match", etag)
+                .asString();
+
+        assertThat(response.getStatus()).isEqualTo(304);
+    }
+
     @SneakyThrows
     @Test
     void handleCreateNewGenreWhenRequestWithUniqueQueryParamNameThenReturnsValidResponseEntity() {
@@ -397,6 +740,99 @@ public class AppTest {
         assertThat(deletedGenre).isNull();
     }
 
+    @SneakyThrows
+    @Test
+    void handleGetGenreStatsWhenBooksAndReviewsAreSavedThenReturnsCounts() {
+        BooksRepository.save(new Book("Unreviewed title", "Unreviewed author", testGenre));
+        var requestUrl = baseUrl + "/genres/" + testGenre.getId() + "/stats";
+
+        var response = Unirest.get(requestUrl).asString();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThatJson(response.getBody()).and(
+                v -> v.node("genreId").isEqualTo(testGenre.getId()),
+                v -> v.node("genreName").isEqualTo(testGenre.getName()),
+                v -> v.node("bookCount").isEqualTo(2),
+                v -> v.node("reviewCount").isEqualTo(1)
+        );
+    }
+
+    @SneakyThrows
+    @Test
+    void handleGetGenreStatsWhenBookMovesToAnotherGenreThenCountsFollowIt() {
+        var otherGenre = new Genre("Other genre");
+        GenresRepository.save(otherGenre);
+        Unirest.post(baseUrl + "/books/" + testBook.getId()
+                + "/edit?title=Updated&author=Updated&genreName=" + otherGenre.getName()).asEmpty();
+
+        var response = Unirest.get(baseUrl + "/genres/" + testGenre.getId() + "/stats").asString();
+        var otherResponse = Unirest.get(baseUrl + "/genres/" + otherGenre.getId() + "/stats").asString();
+
+        assertThatJson(response.getBody()).and(
+                v -> v.node("bookCount").isEqualTo(0),
+                v -> v.node("reviewCount").isEqualTo(0)
+        );
+        assertThatJson(otherResponse.getBody()).and(
+                v -> v.node("bookCount").isEqualTo(1),
+                v -> v.node("reviewCount").isEqualTo(1)
+        );
+    }
+
+    @SneakyThrows
+    @Test
+    void handleGetGenreStatsWhenBookOrReviewIsDeletedThenCountsDecrease() {
+        var book = new Book("Deleted title", "Deleted author", testGenre);
+        BooksRepository.save(book);
+        ReviewsRepository.save(new Review("Deleted review", book));
+        Unirest.post(baseUrl + "/books/" + book.getId() + "/delete").asEmpty();
+        Unirest.post(baseUrl + "/reviews/" + testReview.getId() + "/delete").asEmpty();
+
+        var response = Unirest.get(baseUrl + "/genres/" + testGenre.getId() + "/stats").asString();
+
+        assertThatJson(response.getBody()).and(
+                v -> v.node("bookCount").isEqualTo(1),
+                v -> v.node("reviewCount").isEqualTo(0)
+        );
+    }
+
+    @SneakyThrows
+    @Test
+    void handleGetGenreStatsWhenCountersDriftedThenReconciliationRestoresThem() {
+        GenreStats.addBook(testGenre.getId());
+        GenreStats.removeReview(testGenre.getId());
+
+        GenreStatsReconciler.reconcile();
+        var response = Unirest.get(baseUrl + "/genres/" + testGenre.getId() + "/stats").asString();
+
+        assertThatJson(response.getBody()).and(
+                v -> v.node("bookCount").isEqualTo(1),
+                v -> v.node("reviewCount").isEqualTo(1)
+        );
+    }
+
+    @SneakyThrows
+    @Test
+    void handleGetGenreStatsWhenRequestWithPathParamNonExistentGenreIdThenReturnsNotFoundResponse() {
+        var requestUrl = baseUrl + "/genres/999/stats";
+
+        var response = Unirest.get(requestUrl).asString();
+
+        assertThat(response.getStatus()).isEqualTo(404);
+    }
+
+    @SneakyThrows
+    @Test
+    void handleGetAllGenresStatsWhenRequestIsExecutedThenReturnsCountsOfEveryGenre() {
+        var requestUrl = baseUrl + "/genres/stats";
+
+        var response = Unirest.get(requestUrl).asString();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThatJson(response.getBody()).isArray();
+        assertThat(response.getBody()).contains(testGenre.getName());
+        assertThat(response.getBody()).contains("\"genreId\":" + testGenre.getId());
+    }
+
     @SneakyThrows
     @Test
     void handleGetAllReviewsWhenRequestWithoutQueryParamThenReturnsValidResponseEntity() {
@@ -444,6 +880,30 @@ public class AppTest {
         }
     }
 
+    @SneakyThrows
+    @Test
+    void handleGetAllReviewsWhenRequestWithQueryParamAfterThenReturnsValidResponseEntity() {
+        for (int i = 1; i <= 24; i++) {
+            var book = new Book(i + "Title", i + "Author", testGenre);
+            BooksRepository.save(book);
+            ReviewsRepository.save(new Review(i + "Content", book));
+        }
+        var firstPageResponse = Unirest.get(baseUrl + "/reviews").asString();
+        var cursor = firstPageResponse.getHeaders().getFirst("X-Next-Cursor");
+        var requestUrl = baseUrl + "/reviews?after=" + cursor;
+
+        var response = Unirest.get(requestUrl).asString();
+
+        assertThat(cursor).isNotEmpty();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThatJson(response.getBody()).isArray();
+        var actualReviews = ReviewsRepository.findEntities(1, 10);
+        for (var review: actualReviews) {
+            assertThat(response.getBody()).contains(String.valueOf(review.getId()));
+            assertThat(response.getBody()).contains(review.getContent());
+        }
+    }
+
     @SneakyThrows
     @Test
     void handleGetAllReviewsWhenRequestWithPathParamListThenReturnsValidResponseEntity() {
@@ -483,6 +943,65 @@ public class AppTest {
         assertThat(response.getStatus()).isEqualTo(404);
     }
 
+    @SneakyThrows
+    @Test
+    void handleGetExistingReviewWhenItsBookIsUpdatedThenReturnsNewETag() {
+        var requestUrl = baseUrl + "/reviews/" + testReview.getId();
+        var etag = Unirest.get(requestUrl).asString().getHeaders().getFirst("ETag");
+        var notModifiedResponse = Unirest.get(requestUrl)
+                .header("If-None-Match", etag)
+                .asString();
+
+        Unirest.post(baseUrl + "/books/" + testBook.getId()
+                + "/edit?title=Updated&author=Updated&genreName=" + testGenre.getName()).asEmpty();
+        var response = Unirest.get(requestUrl)
+                .header("If-None-Match", etag)
+                .asString();
+
+        assertThat(notModifiedResponse.getStatus()).isEqualTo(304);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThatJson(response.getBody()).node("bookTitle").isEqualTo("Updated");
+    }
+
+    @SneakyThrows
+    @Test
+    void handleGetAllReviewsWhenAcceptIsCborThenReturnsCborPageWithOwnETag() {
+        var requestUrl = baseUrl + "/reviews";
+        var jsonETag = Unirest.get(requestUrl).asString().getHeaders().getFirst("ETag");
+
+        var response = Unirest.get(requestUrl)
+                .header("Accept", "application/cbor")
+                .asBytes();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeaders().getFirst("Content-Type")).startsWith("application/cbor");
+        assertThat(response.getHeaders().getFirst("ETag")).isNotEqualTo(jsonETag);
+        var reviews = new CBORMapper().readTree(response.getBody());
+        assertThat(reviews.size()).isEqualTo(1);
+        assertThat(reviews.get(0).get("content").asText()).isEqualTo(testReview.getContent());
+    }
+
+    @SneakyThrows
+    @Test
+    void handleGetAllReviewsWhenAcceptEncodingIsGzipThenReturnsOwnETagMatchingBothEncodings() {
+        var requestUrl = baseUrl + "/reviews";
+        var identityETag = Unirest.get(requestUrl)
+                .header("Accept-Encoding", "identity")
+                .asString().getHeaders().getFirst("ETag");
+
+        var gzipETag = Unirest.get(requestUrl)
+                .header("Accept-Encoding", "gzip")
+                .asString().getHeaders().getFirst("ETag");
+        var response = Unirest.get(requestUrl)
+                .header("Accept-Encoding", "identity")
+                .header("If-None-Match", gzipETag)
+                .asString();
+
+        assertThat(gzipETag).isEqualTo(identityETag.substring(0, identityETag.length() - 1) + "-gzip\"");
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeaders().getFirst("ETag")).isEqualTo(identityETag);
+    }
+
     @SneakyThrows
     @Test
     void handleCreateNewReviewWhenPayloadIsValidThenReturnsValidResponseEntity() {
@@ -514,4 +1033,40 @@ public class AppTest {
         assertThat(updatedTestReview).isNotNull();
         assertThat(updatedTestReview.getContent()).isEqualTo(content);
     }
+
+    @SneakyThrows
+    @Test
+    void handleGetMetricsWhenRequestsWereExecutedThenReturnsPrometheusMetrics() {
+        Unirest.get(baseUrl + "/books").asString();
+        Unirest.get(baseUrl + "/books/" + testBook.getId()).asString();
+        var requestUrl = baseUrl + "/metrics";
+
+        var response = Unirest.get(requestUrl).asString();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeaders().getFirst("Content-Type")).startsWith("text/plain");
+        assertThat(response.getBody())
+                .contains("http_server_requests_seconds_count{action=\"list\",method=\"GET\","
+                        + "servlet=\"BooksServlet\",status=\"200\",}")
+                .contains("http_server_requests_seconds_count{action=\"{id}\",method=\"GET\","
+                        + "servlet=\"BooksServlet\",status=\"200\",}")
+                .contains("http_server_requests_active{servlet=\"MetricsServlet\",} 1.0")
+                .contains("repository_query_seconds_count{query=\"BooksRepository.findById\",}")
+                .contains("repository_query_seconds_bucket{query=\"BooksRepository.streamEntities\",");
+    }
+
+    @SneakyThrows
+    @Test
+    void handleGetMetricsWhenRequestIsExecutedThenReturnsConnectionPoolMetrics() {
+        var requestUrl = baseUrl + "/metrics";
+
+        var response = Unirest.get(requestUrl).asString();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getBody())
+                .contains("hikaricp_connections_active{pool=")
+                .contains("hikaricp_connections_idle{pool=")
+                .contains("hikaricp_connections_pending{pool=")
+                .contains("hikaricp_connections_acquire_seconds_bucket{pool=");
+    }
 }
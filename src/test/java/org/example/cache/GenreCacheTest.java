@@ -0,0 +1,67 @@
+package org.example.cache;
+
+import lombok.SneakyThrows;
+import org.example.entity.Genre;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GenreCacheTest {
+    private static final Long GENRE_ID = -1L;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final CountDownLatch loading = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void cleanUp() {
+        release.countDown();
+        executor.shutdownNow();
+        GenreCache.invalidate(GENRE_ID);
+    }
+
+    @SneakyThrows
+    @Test
+    void getByIdWhenInvalidatedDuringLoadThenDoesNotKeepLoadedGenre() {
+        var load = executor.submit(() -> GenreCache.getById(GENRE_ID, this::blockingLoad));
+        assertThat(loading.await(1, TimeUnit.SECONDS)).isTrue();
+        // an update invalidating the genre while the old row is being read
+        var invalidate = new Thread(() -> GenreCache.invalidate(GENRE_ID));
+        invalidate.start();
+        awaitBlocked(invalidate);
+        release.countDown();
+
+        assertThat(load.get(1, TimeUnit.SECONDS).orElseThrow().getName()).isEqualTo("Old name");
+        invalidate.join(1_000);
+        assertThat(invalidate.isAlive()).isFalse();
+        assertThat(GenreCache.getIfPresent(GENRE_ID).isPresent()).isFalse();
+    }
+
+    // the invalidation has reached the entry being computed and waits for the load to finish
+    static void awaitBlocked(Thread thread) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (thread.getState() != Thread.State.BLOCKED && thread.getState() != Thread.State.WAITING) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private Optional<Genre> blockingLoad(Long id) {
+        loading.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        var genre = new Genre("Old name");
+        genre.setId(id);
+        return Optional.of(genre);
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadThroughTest {
+    private final ReadThrough<Long, String> readThrough = new ReadThrough<>(Caffeine.newBuilder().build());
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final CountDownLatch loading = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void cleanUp() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @SneakyThrows
+    @Test
+    void invalidateIfWhenEntriesMatchThenRemovesOnlyThem() {
+        readThrough.get(1L, id -> Optional.of("genre 1"));
+        readThrough.get(2L, id -> Optional.of("genre 2"));
+
+        readThrough.invalidateIf("genre 1"::equals);
+
+        assertThat(readThrough.get(1L, id -> Optional.of("reloaded")).orElseThrow()).isEqualTo("reloaded");
+        assertThat(readThrough.get(2L, id -> Optional.of("reloaded")).orElseThrow()).isEqualTo("genre 2");
+    }
+
+    @SneakyThrows
+    @Test
+    void invalidateIfWhenKeyIsLoadingThenDoesNotKeepLoadedValue() {
+        var load = executor.submit(() -> readThrough.get(1L, this::blockingLoad));
+        assertThat(loading.await(1, TimeUnit.SECONDS)).isTrue();
+        // a genre update invalidating its books while one of them is being read with the old genre
+        var invalidate = new Thread(() -> readThrough.invalidateIf(value -> false));
+        invalidate.start();
+        GenreCacheTest.awaitBlocked(invalidate);
+        release.countDown();
+
+        assertThat(load.get(1, TimeUnit.SECONDS).orElseThrow()).isEqualTo("old genre");
+        invalidate.join(1_000);
+        assertThat(invalidate.isAlive()).isFalse();
+        assertThat(readThrough.get(1L, id -> Optional.of("new genre")).orElseThrow()).isEqualTo("new genre");
+    }
+
+    private Optional<String> blockingLoad(Long id) {
+        loading.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return Optional.of("old genre");
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.component;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DbExecutorTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void cleanUp() {
+        release.countDown();
+        DbExecutor.start(10, 100);
+    }
+
+    @SneakyThrows
+    @Test
+    void executeWhenThreadsAndQueueAreFullThenRejectsTask() {
+        DbExecutor.start(1, 1);
+        var started = new CountDownLatch(1);
+        DbExecutor.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+        DbExecutor.execute(() -> await(release));
+
+        assertThatThrownBy(() -> DbExecutor.execute(() -> { }))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @SneakyThrows
+    @Test
+    void executeWhenQueueHasRoomThenRunsTask() {
+        DbExecutor.start(1, 1);
+        var done = new CountDownLatch(1);
+
+        DbExecutor.execute(done::countDown);
+
+        assertThat(done.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void isInlineWhenStartedInlineThenIsTrueUntilStartedAgain() {
+        DbExecutor.startInline();
+        assertThat(DbExecutor.isInline()).isTrue();
+
+        DbExecutor.start(1, 1);
+        assertThat(DbExecutor.isInline()).isFalse();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
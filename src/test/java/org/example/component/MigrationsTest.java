@@ -0,0 +1,75 @@
+package org.example.component;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MigrationsTest {
+    private HikariDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() {
+        var hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl("jdbc:h2:mem:migrations;DB_CLOSE_DELAY=-1");
+        dataSource = new HikariDataSource(hikariConfig);
+    }
+
+    @SneakyThrows
+    @AfterEach
+    public void cleanUp() {
+        execute("DROP ALL OBJECTS");
+        dataSource.close();
+    }
+
+    @SneakyThrows
+    @Test
+    void migrateWhenDatabaseWasCreatedBySchemaSqlThenAppliesMigrationsAndKeepsData() {
+        execute(readBaselineSchema());
+        execute("INSERT INTO genres (name, created_at) VALUES ('Novel', CURRENT_TIMESTAMP)");
+        execute("INSERT INTO books (title, author, genre_id, created_at) "
+                + "SELECT 'Title', 'Author', id, CURRENT_TIMESTAMP FROM genres");
+
+        Migrations.migrate(dataSource);
+        // a restart finds every script applied
+        Migrations.migrate(dataSource);
+
+        assertThat(query("SELECT version FROM schema_version ORDER BY version")).containsExactly("1", "2", "3");
+        assertThat(query("SELECT title || ':' || version FROM books")).containsExactly("Title:0");
+        assertThat(query("SELECT LOWER(index_name) FROM information_schema.indexes WHERE table_name = 'BOOKS'"))
+                .contains("idx_books_author_id", "idx_books_genre_id_id");
+    }
+
+    private static String readBaselineSchema() throws Exception {
+        try (var is = MigrationsTest.class.getClassLoader().getResourceAsStream("baseline-schema.sql")) {
+            return new String(Objects.requireNonNull(is).readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void execute(String sql) throws Exception {
+        try (var conn = dataSource.getConnection();
+             var stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private ArrayList<String> query(String sql) throws Exception {
+        try (var conn = dataSource.getConnection();
+             var stmt = conn.createStatement();
+             var resultSet = stmt.executeQuery(sql)) {
+            var values = new ArrayList<String>();
+            while (resultSet.next()) {
+                values.add(resultSet.getString(1));
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.component;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @AfterEach
+    public void cleanUp() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @SneakyThrows
+    @Test
+    void executeWhenSameKeyIsInFlightThenWaitsForItsResult() {
+        var singleFlight = new SingleFlight<String, String>("test.coalesced");
+
+        var first = executor.submit(() -> singleFlight.execute("key", this::blockingCall));
+        var second = executor.submit(() -> singleFlight.execute("key", this::blockingCall));
+        awaitCoalesced(singleFlight, 1);
+        release.countDown();
+
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("result 1");
+        assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("result 1");
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @SneakyThrows
+    @Test
+    void executeWhenKeysDifferThenRunsEachCall() {
+        var singleFlight = new SingleFlight<String, String>("test.keys");
+        release.countDown();
+
+        singleFlight.execute("first", this::blockingCall);
+        singleFlight.execute("second", this::blockingCall);
+        singleFlight.execute("first", this::blockingCall);
+
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(singleFlight.getCoalescedCount()).isZero();
+    }
+
+    @SneakyThrows
+    @Test
+    void executeWhenInFlightCallFailsThenWaitingCallerGetsTheError() {
+        var singleFlight = new SingleFlight<String, String>("test.failed");
+
+        var first = executor.submit(() -> singleFlight.execute("key", () -> {
+            blockingCall();
+            throw new SQLException("Connection is not available", "08001");
+        }));
+        var second = executor.submit(() -> singleFlight.execute("key", this::blockingCall));
+        awaitCoalesced(singleFlight, 1);
+        release.countDown();
+
+        assertThatThrownBy(() -> first.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(SQLException.class);
+        assertThatThrownBy(() -> second.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("Connection is not available");
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    private String blockingCall() throws SQLException {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(e);
+        }
+        return "result " + calls.incrementAndGet();
+    }
+
+    private static void awaitCoalesced(SingleFlight<?, ?> singleFlight, int count) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (singleFlight.getCoalescedCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
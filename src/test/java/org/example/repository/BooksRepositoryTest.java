@@ -0,0 +1,183 @@
+package org.example.repository;
+
+import lombok.SneakyThrows;
+import org.example.cache.BookCache;
+import org.example.entity.Book;
+import org.example.entity.Genre;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BooksRepositoryTest extends CountingRepositoryTest {
+    private Genre testGenre;
+
+    @Override
+    protected void saveTestData() throws SQLException {
+        testGenre = new Genre("Counted genre");
+        GenresRepository.save(testGenre);
+        for (int i = 1; i <= 12; i++) {
+            BooksRepository.save(new Book(i + "Counted title", "Counted author", testGenre));
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    void findEntitiesWhenPageIsRequestedThenIssuesSingleStatement() {
+        var books = BooksRepository.findEntities(0, 10);
+
+        assertThat(books).hasSize(10);
+        assertThat(books.get(0).getGenre().getName()).isEqualTo(testGenre.getName());
+        assertThat(countingDataSource.getStatementCount()).isEqualTo(1);
+    }
+
+    @SneakyThrows
+    @Test
+    void findEntitiesByAuthorWhenPageIsRequestedThenIssuesSingleStatement() {
+        var books = BooksRepository.findEntitiesByAuthor("Counted author", 0, 10);
+
+        assertThat(books).hasSize(10);
+        assertThat(books.get(0).getGenre().getName()).isEqualTo(testGenre.getName());
+        assertThat(countingDataSource.getStatementCount()).isEqualTo(1);
+    }
+
+    @SneakyThrows
+    @Test
+    void findEntitiesByGenreWhenPageIsRequestedThenIssuesSingleStatement() {
+        var books = BooksRepository.findEntitiesByGenre(testGenre.getName(), 1, 10);
+
+        assertThat(books).hasSize(2);
+        assertThat(books.get(0).getAuthor()).isEqualTo("Counted author");
+        assertThat(countingDataSource.getStatementCount()).isEqualTo(1);
+    }
+
+    @SneakyThrows
+    @Test
+    void findEntitiesByAuthorWhenAuthorAndPageChangeThenReusesStatementText() {
+        BooksRepository.findEntitiesByAuthor("Counted author", 0, 10);
+        BooksRepository.findEntitiesByAuthor("Counted author", 1, 10);
+        var books = BooksRepository.findEntitiesByAuthor("O'Brien' OR '1'='1", 0, 10);
+
+        assertThat(books).isEmpty();
+        assertThat(countingDataSource.getPreparedSqls()).hasSize(1);
+    }
+
+    @SneakyThrows
+    @Test
+    void findExistingTitlesWhenListSizesRoundUpToSamePowerOfTwoThenReusesStatementText() {
+        var titles = BooksRepository.findExistingTitles(List.of("1Counted title", "2Counted title", "New title"));
+        BooksRepository.findExistingTitles(List.of("1Counted title", "2Counted title", "3Counted title", "4"));
+
+        assertThat(titles).containsExactlyInAnyOrder("1Counted title", "2Counted title");
+        assertThat(countingDataSource.getPreparedSqls()).hasSize(1);
+    }
+
+    @SneakyThrows
+    @Test
+    void findByIdWhenBookExistsThenIssuesSingleStatement() {
+        var book = BooksRepository.findByTitle("1Counted title").orElseThrow();
+        var foundBook = BooksRepository.findById(book.getId()).orElseThrow();
+
+        assertThat(foundBook.getTitle()).isEqualTo("1Counted title");
+        assertThat(foundBook.getGenre().getId()).isEqualTo(testGenre.getId());
+        assertThat(countingDataSource.getStatementCount()).isEqualTo(2);
+    }
+
+    @SneakyThrows
+    @Test
+    void findByIdWhenBookIsCachedThenDoesNotHitDatabase() {
+        var book = BooksRepository.findByTitle("1Counted title").orElseThrow();
+        var hitCount = BookCache.getHitCount();
+
+        BooksRepository.findById(book.getId()).orElseThrow();
+        var foundBook = BooksRepository.findById(book.getId()).orElseThrow();
+        var bookByTitle = BooksRepository.findByTitle("1Counted title").orElseThrow();
+
+        assertThat(foundBook.getTitle()).isEqualTo("1Counted title");
+        assertThat(bookByTitle.getId()).isEqualTo(book.getId());
+        assertThat(countingDataSource.getStatementCount()).isEqualTo(2);
+        assertThat(BookCache.getHitCount() - hitCount).isEqualTo(2L);
+    }
+
+    @SneakyThrows
+    @Test
+    void findByIdWhenBookIsUpdatedThenReturnsFreshEntity() {
+        var book = BooksRepository.findByTitle("1Counted title").orElseThrow();
+        BooksRepository.findById(book.getId()).orElseThrow();
+
+        BooksRepository.update(new Book("Renamed title", "Renamed author", testGenre), book.getId());
+        var foundBook = BooksRepository.findById(book.getId()).orElseThrow();
+        var bookByOldTitle = BooksRepository.findByTitle("1Counted title");
+
+        assertThat(foundBook.getTitle()).isEqualTo("Renamed title");
+        assertThat(foundBook.getVersion()).isEqualTo(book.getVersion() + 1);
+        assertThat(bookByOldTitle).isEmpty();
+    }
+
+    @SneakyThrows
+    @Test
+    void findByIdWhenBookIsDeletedThenReturnsEmpty() {
+        var book = BooksRepository.findByTitle("1Counted title").orElseThrow();
+        BooksRepository.findById(book.getId()).orElseThrow();
+
+        BooksRepository.deleteById(book.getId());
+
+        assertThat(BooksRepository.findById(book.getId())).isEmpty();
+        assertThat(BooksRepository.findByTitle("1Counted title")).isEmpty();
+        assertThat(BooksRepository.findETag(book.getId())).isEmpty();
+    }
+
+    @SneakyThrows
+    @Test
+    void findByIdWhenGenreIsRenamedThenReturnsBookWithNewGenreName() {
+        var book = BooksRepository.findByTitle("1Counted title").orElseThrow();
+        BooksRepository.findById(book.getId()).orElseThrow();
+
+        GenresRepository.update(new Genre("Renamed genre"), testGenre.getId());
+        var foundBook = BooksRepository.findById(book.getId()).orElseThrow();
+
+        assertThat(foundBook.getGenre().getName()).isEqualTo("Renamed genre");
+    }
+
+    @SneakyThrows
+    @Test
+    void saveAllWhenBooksAreSavedThenIssuesSingleStatementAndAssignsIds() {
+        var books = List.of(
+                new Book("Batch title 1", "Batch author", testGenre),
+                new Book("Batch title 2", "Batch author", testGenre),
+                new Book("Batch title 3", "Batch author", testGenre));
+
+        BooksRepository.saveAll(books);
+
+        assertThat(books).allSatisfy(book -> assertThat(book.getId()).isNotNull());
+        assertThat(books).extracting(Book::getId).doesNotHaveDuplicates();
+        assertThat(countingDataSource.getStatementCount()).isEqualTo(1);
+        assertThat(BooksRepository.findById(books.get(2).getId()).orElseThrow().getTitle())
+                .isEqualTo("Batch title 3");
+    }
+
+    @SneakyThrows
+    @Test
+    void saveAllWhenTitleIsDuplicatedThenSavesNothing() {
+        var books = List.of(
+                new Book("Batch title", "Batch author", testGenre),
+                new Book("1Counted title", "Batch author", testGenre));
+
+        assertThatThrownBy(() -> BooksRepository.saveAll(books))
+                .isInstanceOf(SQLException.class)
+                .matches(e -> BaseRepository.isUniqueViolation((SQLException) e));
+        assertThat(BooksRepository.findByTitle("Batch title")).isEmpty();
+    }
+
+    @SneakyThrows
+    @Test
+    void findExistingTitlesWhenSomeTitlesExistThenReturnsOnlyThem() {
+        var titles = BooksRepository.findExistingTitles(List.of("1Counted title", "2Counted title", "New title"));
+
+        assertThat(titles).containsExactlyInAnyOrder("1Counted title", "2Counted title");
+        assertThat(countingDataSource.getStatementCount()).isEqualTo(1);
+    }
+}
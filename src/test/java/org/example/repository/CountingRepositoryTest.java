@@ -0,0 +1,44 @@
+package org.example.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.SneakyThrows;
+import org.example.App;
+import org.example.util.CountingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.sql.SQLException;
+
+// Starts the app once per test class. The data saved by saveTestData goes through the app's data source,
+// every statement a test issues after that is counted by countingDataSource.
+public abstract class CountingRepositoryTest {
+    protected static HikariDataSource dataSource;
+    protected CountingDataSource countingDataSource;
+
+    @SneakyThrows
+    @BeforeAll
+    public static void beforeAll() {
+        App.getApp();
+        dataSource = BaseRepository.dataSource;
+    }
+
+    @SneakyThrows
+    @BeforeEach
+    public void setUp() {
+        saveTestData();
+
+        countingDataSource = new CountingDataSource(dataSource);
+        BaseRepository.dataSource = countingDataSource;
+    }
+
+    protected abstract void saveTestData() throws SQLException;
+
+    @SneakyThrows
+    @AfterEach
+    public void cleanUp() {
+        BaseRepository.dataSource = dataSource;
+        BooksRepository.clear();
+        GenresRepository.clear();
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.repository;
+
+import lombok.SneakyThrows;
+import org.example.cache.GenreCache;
+import org.example.entity.Genre;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GenresRepositoryTest extends CountingRepositoryTest {
+    private Genre testGenre;
+
+    @Override
+    protected void saveTestData() throws SQLException {
+        testGenre = new Genre("Cached genre");
+        GenresRepository.save(testGenre);
+    }
+
+    @SneakyThrows
+    @Test
+    void findByIdWhenGenreIsCachedThenDoesNotHitDatabase() {
+        var hitCount = GenreCache.getHitCount();
+
+        GenresRepository.findById(testGenre.getId()).orElseThrow();
+        var genre = GenresRepository.findById(testGenre.getId()).orElseThrow();
+        var genreByName = GenresRepository.findByName(testGenre.getName()).orElseThrow();
+
+        assertThat(genre.getName()).isEqualTo(testGenre.getName());
+        assertThat(genreByName.getId()).isEqualTo(testGenre.getId());
+        assertThat(countingDataSource.getStatementCount()).isEqualTo(1);
+        assertThat(GenreCache.getHitCount() - hitCount).isEqualTo(2L);
+    }
+
+    @SneakyThrows
+    @Test
+    void findByIdWhenGenreIsUpdatedThenReturnsFreshEntity() {
+        GenresRepository.findById(testGenre.getId()).orElseThrow();
+
+        GenresRepository.update(new Genre("Renamed genre"), testGenre.getId());
+        var genre = GenresRepository.findById(testGenre.getId()).orElseThrow();
+        var genreByOldName = GenresRepository.findByName(testGenre.getName());
+
+        assertThat(genre.getName()).isEqualTo("Renamed genre");
+        assertThat(genreByOldName.isPresent()).isFalse();
+    }
+
+    @SneakyThrows
+    @Test
+    void findByNameWhenGenreIsDeletedThenReturnsEmpty() {
+        GenresRepository.findByName(testGenre.getName()).orElseThrow();
+
+        GenresRepository.deleteById(testGenre.getId());
+        var genre = GenresRepository.findByName(testGenre.getName());
+
+        assertThat(genre.isPresent()).isFalse();
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.repository;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.SneakyThrows;
+import org.example.App;
+import org.example.component.Migrations;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Plans of the filtered book queries on the test database (H2) and, when TEST_DATABASE_URL points to one,
+// on PostgreSQL. Test tables are tiny, so PostgreSQL is told to avoid sequential scans: the test checks that
+// an index able to serve the query exists, the planner picks it on its own once the table is large.
+public class QueryPlanTest {
+    private static final List<HikariDataSource> DATA_SOURCES = new ArrayList<>();
+
+    @SneakyThrows
+    @BeforeAll
+    public static void beforeAll() {
+        App.getApp();
+        DATA_SOURCES.add(BaseRepository.dataSource);
+
+        var postgresUrl = System.getenv("TEST_DATABASE_URL");
+        if (postgresUrl != null) {
+            var hikariConfig = new HikariConfig();
+            hikariConfig.setJdbcUrl(postgresUrl);
+            var postgres = new HikariDataSource(hikariConfig);
+            Migrations.migrate(postgres);
+            DATA_SOURCES.add(postgres);
+        }
+    }
+
+    @AfterAll
+    public static void afterAll() {
+        DATA_SOURCES.stream()
+                .filter(dataSource -> dataSource != BaseRepository.dataSource)
+                .forEach(HikariDataSource::close);
+        DATA_SOURCES.clear();
+    }
+
+    @SneakyThrows
+    @Test
+    void selectBooksByAuthorWhenExplainedThenUsesAuthorIndex() {
+        for (var dataSource : DATA_SOURCES) {
+            var pagePlan = explain(dataSource, BooksRepository.SELECT_BOOKS_BY_AUTHOR_PAGE, "Author", 10, 0);
+            var cursorPlan = explain(dataSource, BooksRepository.SELECT_BOOKS_BY_AUTHOR_AFTER, "Author", 0L, 10);
+
+            assertThat(pagePlan).containsIgnoringCase("idx_books_author_id");
+            assertThat(cursorPlan).containsIgnoringCase("idx_books_author_id");
+        }
+    }
+
+    // H2 keeps its own index on books (genre_id) for the foreign key and may pick either one, PostgreSQL has
+    // only idx_books_genre_id_id
+    @SneakyThrows
+    @Test
+    void selectBooksByGenreWhenExplainedThenUsesGenreIndex() {
+        for (var dataSource : DATA_SOURCES) {
+            var genreIndexes = findGenreIndexes(dataSource);
+            var pagePlan = explain(dataSource, BooksRepository.SELECT_BOOKS_BY_GENRE_PAGE, "Genre", 10, 0);
+            var cursorPlan = explain(dataSource, BooksRepository.SELECT_BOOKS_BY_GENRE_AFTER, "Genre", 0L, 10);
+
+            assertThat(genreIndexes).contains("idx_books_genre_id_id");
+            for (var plan : List.of(pagePlan, cursorPlan)) {
+                assertThat(genreIndexes).anyMatch(index -> plan.toLowerCase().contains(index));
+            }
+        }
+    }
+
+    // names of the indexes on books that start with genre_id, in lower case
+    private static Set<String> findGenreIndexes(HikariDataSource dataSource) throws SQLException {
+        try (var conn = dataSource.getConnection()) {
+            var metaData = conn.getMetaData();
+            var table = metaData.storesUpperCaseIdentifiers() ? "BOOKS" : "books";
+            var indexes = new HashSet<String>();
+            try (var resultSet = metaData.getIndexInfo(null, null, table, false, false)) {
+                while (resultSet.next()) {
+                    var column = resultSet.getString("COLUMN_NAME");
+                    if (resultSet.getShort("ORDINAL_POSITION") == 1 && "genre_id".equalsIgnoreCase(column)) {
+                        indexes.add(resultSet.getString("INDEX_NAME").toLowerCase());
+                    }
+                }
+            }
+            return indexes;
+        }
+    }
+
+    private static String explain(HikariDataSource dataSource, String sql, Object... params) throws SQLException {
+        try (var conn = dataSource.getConnection()) {
+            var isPostgres = conn.getMetaData().getDatabaseProductName().equals("PostgreSQL");
+            if (isPostgres) {
+                try (var stmt = conn.createStatement()) {
+                    stmt.execute("SET enable_seqscan = off");
+                }
+            }
+
+            var plan = new StringBuilder();
+            try (var stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+                BaseRepository.bind(stmt, params);
+                var resultSet = stmt.executeQuery();
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            } finally {
+                if (isPostgres) {
+                    try (var stmt = conn.createStatement()) {
+                        stmt.execute("RESET enable_seqscan");
+                    }
+                }
+            }
+            return plan.toString();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.repository;
+
+import lombok.SneakyThrows;
+import org.example.entity.Book;
+import org.example.entity.Genre;
+import org.example.entity.Review;
+import org.example.search.SearchIndex;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReviewsRepositoryTest extends CountingRepositoryTest {
+    private Genre testGenre;
+
+    @Override
+    protected void saveTestData() throws SQLException {
+        testGenre = new Genre("Reviewed genre");
+        GenresRepository.save(testGenre);
+        for (int i = 1; i <= 12; i++) {
+            var book = new Book(i + "Reviewed title", i + "Reviewed author", testGenre);
+            BooksRepository.save(book);
+            ReviewsRepository.save(new Review(i + "Review content", book));
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    void findEntitiesWhenPageIsRequestedThenIssuesSingleStatement() {
+        var reviews = ReviewsRepository.findEntities(0, 10);
+
+        assertThat(reviews).hasSize(10);
+        var review = reviews.get(0);
+        assertThat(review.getId()).isEqualTo(review.getBook().getId());
+        assertThat(review.getBook().getGenre().getName()).isEqualTo(testGenre.getName());
+        assertThat(countingDataSource.getStatementCount()).isEqualTo(1);
+    }
+
+    @SneakyThrows
+    @Test
+    void findByIdWhenReviewExistsThenIssuesSingleStatement() {
+        BaseRepository.dataSource = dataSource;
+        var book = BooksRepository.findByTitle("1Reviewed title").orElseThrow();
+        BaseRepository.dataSource = countingDataSource;
+
+        var review = ReviewsRepository.findById(book.getId()).orElseThrow();
+
+        assertThat(review.getContent()).isEqualTo("1Review content");
+        assertThat(review.getBook().getAuthor()).isEqualTo("1Reviewed author");
+        assertThat(countingDataSource.getStatementCount()).isEqualTo(1);
+    }
+
+    @SneakyThrows
+    @Test
+    void updateWhenBookHasNoReviewThenDoesNotIndexContent() {
+        BaseRepository.dataSource = dataSource;
+        var book = new Book("Unreviewed title", "Unreviewed author", testGenre);
+        BooksRepository.save(book);
+
+        ReviewsRepository.update(new Review("Phantomword review", book), book.getId());
+
+        assertThat(ReviewsRepository.findById(book.getId()).isPresent()).isFalse();
+        assertThat(SearchIndex.search("phantomword", 10)).isEmpty();
+    }
+}
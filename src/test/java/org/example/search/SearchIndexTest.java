@@ -0,0 +1,96 @@
+package org.example.search;
+
+import org.example.dto.SearchResultDTO;
+import org.example.entity.Book;
+import org.example.entity.Genre;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchIndexTest {
+    private final Genre genre = new Genre("Popular science");
+
+    @BeforeEach
+    public void setUp() {
+        SearchIndex.clear();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        SearchIndex.clear();
+    }
+
+    @Test
+    void tokenizeWhenTextHasCaseDiacriticsAndPunctuationThenReturnsFoldedWords() {
+        assertThat(SearchIndex.tokenize("Émile Zola: L'Assommoir, 1877"))
+                .containsExactly("emile", "zola", "l", "assommoir", "1877");
+    }
+
+    @Test
+    void searchWhenQueryIsPrefixOfTitleWordThenFindsBook() {
+        SearchIndex.putBook(book(1L, "Surely You're Joking, Mr. Feynman!", "Richard Phillips Feynman"));
+        SearchIndex.putBook(book(2L, "Code", "Charles Petzold"));
+
+        var results = SearchIndex.search("feyn", 10);
+
+        assertThat(results).extracting(SearchResultDTO::getId).containsExactly(1L);
+    }
+
+    @Test
+    void searchWhenSeveralTokensThenReturnsOnlyBooksMatchingAll() {
+        SearchIndex.putBook(book(1L, "Code", "Charles Petzold"));
+        SearchIndex.putBook(book(2L, "Programming Windows", "Charles Petzold"));
+
+        var results = SearchIndex.search("petzold code", 10);
+
+        assertThat(results).extracting(SearchResultDTO::getId).containsExactly(1L);
+    }
+
+    @Test
+    void searchWhenWordIsInTitleOfOneBookAndReviewOfAnotherThenRanksTitleFirst() {
+        SearchIndex.putBook(book(1L, "Dune", "Frank Herbert"));
+        SearchIndex.putReview(1L, "Better than any dragon story");
+        SearchIndex.putBook(book(2L, "Dragon Rider", "Cornelia Funke"));
+
+        var results = SearchIndex.search("dragon", 10);
+
+        assertThat(results).extracting(SearchResultDTO::getId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void searchWhenBookIsUpdatedOrRemovedThenOldTermsAreNotFound() {
+        SearchIndex.putBook(book(1L, "Old title", "Author"));
+        SearchIndex.putReview(1L, "Review text");
+
+        SearchIndex.putBook(book(1L, "New title", "Author"));
+
+        assertThat(SearchIndex.search("old", 10)).isEmpty();
+        assertThat(SearchIndex.search("new review", 10)).extracting(SearchResultDTO::getId).containsExactly(1L);
+
+        SearchIndex.removeReview(1L);
+        assertThat(SearchIndex.search("review", 10)).isEmpty();
+
+        SearchIndex.removeBook(1L);
+        assertThat(SearchIndex.search("new", 10)).isEmpty();
+        assertThat(SearchIndex.size()).isEqualTo(0);
+    }
+
+    @Test
+    void searchWhenMoreMatchesThanLimitThenReturnsLimitedResults() {
+        for (long id = 1; id <= 20; id++) {
+            SearchIndex.putBook(book(id, "Title " + id, "Author"));
+        }
+
+        var results = SearchIndex.search("author", 5);
+
+        assertThat(results).extracting(SearchResultDTO::getId).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    private Book book(Long id, String title, String author) {
+        var book = new Book(title, author, genre);
+        book.setId(id);
+        return book;
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CountingDataSource extends HikariDataSource {
+    private final HikariDataSource delegate;
+    private final AtomicInteger statementCount = new AtomicInteger();
+    private final Set<String> preparedSqls = ConcurrentHashMap.newKeySet();
+
+    public CountingDataSource(HikariDataSource delegate) {
+        this.delegate = delegate;
+    }
+
+    public int getStatementCount() {
+        return statementCount.get();
+    }
+
+    // distinct statement texts, each one is a separate entry in the driver's and the server's statement caches
+    public Set<String> getPreparedSqls() {
+        return preparedSqls;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        var connection = delegate.getConnection();
+
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    var name = method.getName();
+                    if (name.startsWith("prepare") || name.equals("createStatement")) {
+                        statementCount.incrementAndGet();
+                    }
+                    if (name.startsWith("prepare")) {
+                        preparedSqls.add((String) args[0]);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
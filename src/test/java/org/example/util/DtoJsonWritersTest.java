@@ -0,0 +1,127 @@
+package org.example.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.example.dto.BookBatchResultDTO;
+import org.example.dto.BookDTO;
+import org.example.dto.GenreDTO;
+import org.example.dto.GenreStatsDTO;
+import org.example.dto.ImportResultDTO;
+import org.example.dto.ReviewDTO;
+import org.example.dto.SearchResultDTO;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DtoJsonWritersTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @SneakyThrows
+    @Test
+    void writeWhenDtosAreGeneratedThenMatchesObjectMapper() {
+        var book = Instancio.of(BookDTO.class).create();
+        var genre = Instancio.of(GenreDTO.class).create();
+        var review = Instancio.of(ReviewDTO.class).create();
+        var genreStats = Instancio.of(GenreStatsDTO.class).create();
+        var searchResult = Instancio.of(SearchResultDTO.class).create();
+        var importResult = Instancio.of(ImportResultDTO.class).create();
+
+        assertThat(JsonBuffer.toBytes(DtoJsonWriters::writeBook, book))
+                .isEqualTo(OBJECT_MAPPER.writeValueAsBytes(book));
+        assertThat(JsonBuffer.toBytes(DtoJsonWriters::writeGenre, genre))
+                .isEqualTo(OBJECT_MAPPER.writeValueAsBytes(genre));
+        assertThat(JsonBuffer.toBytes(DtoJsonWriters::writeReview, review))
+                .isEqualTo(OBJECT_MAPPER.writeValueAsBytes(review));
+        assertThat(JsonBuffer.toBytes(DtoJsonWriters::writeGenresStats, List.of(genreStats, genreStats)))
+                .isEqualTo(OBJECT_MAPPER.writeValueAsBytes(List.of(genreStats, genreStats)));
+        assertThat(JsonBuffer.toBytes(DtoJsonWriters::writeSearchResults, List.of(searchResult)))
+                .isEqualTo(OBJECT_MAPPER.writeValueAsBytes(List.of(searchResult)));
+        assertThat(JsonBuffer.toBytes(DtoJsonWriters::writeImportResult, importResult))
+                .isEqualTo(OBJECT_MAPPER.writeValueAsBytes(importResult));
+    }
+
+    @SneakyThrows
+    @Test
+    void writeBookWhenStringsNeedEscapingThenMatchesObjectMapper() {
+        var book = new BookDTO();
+        book.setId(-42L);
+        book.setTitle("\"Quoted\" \\ back/slash\ttab\nline\u0001\u001f\u007f");
+        book.setAuthor("Лев Толстой — Война и мир 📚");
+        book.setGenreName("");
+
+        var json = JsonBuffer.toBytes(DtoJsonWriters::writeBook, book);
+
+        assertThat(json).isEqualTo(OBJECT_MAPPER.writeValueAsBytes(book));
+        assertThat(OBJECT_MAPPER.readValue(json, BookDTO.class).getAuthor()).isEqualTo(book.getAuthor());
+    }
+
+    @SneakyThrows
+    @Test
+    void writeBookWhenFieldsAreNullThenWritesNulls() {
+        var book = new BookDTO();
+
+        var json = JsonBuffer.toBytes(DtoJsonWriters::writeBook, book);
+
+        assertThat(new String(json, StandardCharsets.UTF_8))
+                .isEqualTo("{\"id\":null,\"title\":null,\"author\":null,\"genreName\":null}");
+        assertThat(json).isEqualTo(OBJECT_MAPPER.writeValueAsBytes(book));
+    }
+
+    @SneakyThrows
+    @Test
+    void writeBookBatchResultsWhenIdOrErrorIsNullThenLeavesItOut() {
+        var created = new BookBatchResultDTO();
+        created.setStatus(201);
+        created.setId(Long.MAX_VALUE);
+        var rejected = new BookBatchResultDTO();
+        rejected.setStatus(404);
+        rejected.setError("Genre not found");
+        var results = List.of(created, rejected);
+
+        var json = JsonBuffer.toBytes(DtoJsonWriters::writeBookBatchResults, results);
+
+        assertThat(new String(json, StandardCharsets.UTF_8)).isEqualTo(
+                "[{\"status\":201,\"id\":9223372036854775807},{\"status\":404,\"error\":\"Genre not found\"}]");
+        assertThat(json).isEqualTo(OBJECT_MAPPER.writeValueAsBytes(results));
+    }
+
+    @SneakyThrows
+    @Test
+    void writeGenreStatsWhenCountsAreAtLimitsThenMatchesObjectMapper() {
+        var genreStats = new GenreStatsDTO();
+        genreStats.setGenreId(Long.MIN_VALUE);
+        genreStats.setGenreName("Poetry");
+        genreStats.setBookCount(0);
+        genreStats.setReviewCount(-1);
+
+        assertThat(JsonBuffer.toBytes(DtoJsonWriters::writeGenreStats, genreStats))
+                .isEqualTo(OBJECT_MAPPER.writeValueAsBytes(genreStats));
+    }
+
+    @SneakyThrows
+    @Test
+    void writeSearchResultWhenScoreIsNotFiniteThenMatchesObjectMapper() {
+        var searchResult = new SearchResultDTO();
+        searchResult.setId(1L);
+        searchResult.setScore(Double.NaN);
+        var smallScore = new SearchResultDTO();
+        smallScore.setScore(1.0E-5);
+
+        assertThat(JsonBuffer.toBytes(DtoJsonWriters::writeSearchResults, List.of(searchResult, smallScore)))
+                .isEqualTo(OBJECT_MAPPER.writeValueAsBytes(List.of(searchResult, smallScore)));
+    }
+
+    @Test
+    void writeStringWhenLongerThanBufferThenGrows() {
+        var buffer = new JsonBuffer(4);
+
+        buffer.writeString("ä".repeat(1000));
+
+        assertThat(buffer.size()).isEqualTo(2002);
+        assertThat(new String(buffer.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("\"" + "ä".repeat(1000) + "\"");
+    }
+}
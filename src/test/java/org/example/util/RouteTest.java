@@ -0,0 +1,54 @@
+package org.example.util;
+
+import org.example.util.Route.Action;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RouteTest {
+    @Test
+    void parseWhenPathIsMissingOrRootThenReturnsList() {
+        assertThat(Route.parse(null).getAction()).isEqualTo(Action.LIST);
+        assertThat(Route.parse("/").getAction()).isEqualTo(Action.LIST);
+        assertThat(Route.parse("/list").getAction()).isEqualTo(Action.LIST);
+    }
+
+    @Test
+    void parseWhenPathNamesCollectionActionThenReturnsItWithoutId() {
+        var route = Route.parse("/export");
+
+        assertThat(route.getAction()).isEqualTo(Action.EXPORT);
+        assertThat(Route.parse("/stats").getAction()).isEqualTo(Action.ALL_STATS);
+        assertThat(Route.parse("/batch/").getAction()).isEqualTo(Action.BATCH);
+    }
+
+    @Test
+    void parseWhenPathStartsWithIdThenReturnsIdAndEntityAction() {
+        var show = Route.parse("/42");
+        var edit = Route.parse("/42/edit");
+        var stats = Route.parse("/7/stats/");
+
+        assertThat(show.getAction()).isEqualTo(Action.SHOW);
+        assertThat(show.getId()).isEqualTo(42L);
+        assertThat(edit.getAction()).isEqualTo(Action.EDIT);
+        assertThat(edit.getId()).isEqualTo(42L);
+        assertThat(stats.getAction()).isEqualTo(Action.STATS);
+        assertThat(stats.getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void parseWhenPathIsNotRouteThenReturnsNull() {
+        assertThat(Route.parse("/abc")).isNull();
+        assertThat(Route.parse("/42/unknown")).isNull();
+        assertThat(Route.parse("/42/edit/more")).isNull();
+        assertThat(Route.parse("/list/42")).isNull();
+        assertThat(Route.parse("/42/{id}")).isNull();
+        assertThat(Route.parse("//42")).isNull();
+        assertThat(Route.parse("/99999999999999999999")).isNull();
+    }
+
+    @Test
+    void parseWhenPathIsCollectionRouteThenReturnsSameInstance() {
+        assertThat(Route.parse("/list")).isSameAs(Route.parse("/"));
+    }
+}
@@ -1,3 +1,6 @@
+-- the schema.sql the application created its tables with before db/migration, kept to test that
+-- databases created by it are migrated
+
 DROP TABLE IF EXISTS books CASCADE;
 
 CREATE TABLE books (